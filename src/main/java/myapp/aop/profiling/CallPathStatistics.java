@@ -0,0 +1,60 @@
+package myapp.aop.profiling;
+
+import java.io.Serializable;
+
+/**
+ * The execution times of the sampled calls to a method through one call path.
+ */
+public class CallPathStatistics implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String path;
+
+    private final long count;
+
+    private final long totalNanos;
+
+    private final long maxNanos;
+
+    public CallPathStatistics(String path, long count, long totalNanos, long maxNanos) {
+        this.path = path;
+        this.count = count;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+    }
+
+    /**
+     * @return the methods called, from the outermost one, such as {@code ProductResource.getProduct > ProductService.findOne}.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getTotalMillis() {
+        return totalNanos / 1e6;
+    }
+
+    public double getMeanMillis() {
+        return count == 0 ? 0 : totalNanos / 1e6 / count;
+    }
+
+    public double getMaxMillis() {
+        return maxNanos / 1e6;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CallPathStatistics{" +
+            "path='" + path + "'" +
+            ", count=" + count +
+            ", totalNanos=" + totalNanos +
+            ", maxNanos=" + maxNanos +
+            "}";
+    }
+}
@@ -0,0 +1,263 @@
+package myapp.aop.profiling;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Aspect timing the execution of service, repository and Web REST Spring components.
+ * <p>
+ * Only a share of the outermost calls, {@code sampling-rate}, is timed, together with all the calls they make: the
+ * other calls only go through a thread-local check. Each timed call is recorded in the {@value #TIMER_NAME} timer of its
+ * method, whose percentiles are computed from HDR histograms, and in the statistics of its call path, such as
+ * {@code ProductResource.getAllProducts > ProductService.findAll > ProductRepository.findAll}, read by
+ * {@link myapp.management.HotMethodsEndpoint}. At most {@code max-paths} call paths are kept.
+ */
+@Aspect
+public class ProfilingAspect {
+
+    public static final String TIMER_NAME = "app.methods";
+
+    private static final String PATH_SEPARATOR = " > ";
+
+    private final double samplingRate;
+
+    private final int maxPaths;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ThreadLocal<CallStack> callStack = ThreadLocal.withInitial(CallStack::new);
+
+    private final ClassValue<ConcurrentMap<Method, Probe>> probes = new ClassValue<>() {
+        @Override
+        protected ConcurrentMap<Method, Probe> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private volatile CallTree tree = new CallTree();
+
+    public ProfilingAspect(double samplingRate, int maxPaths, MeterRegistry meterRegistry) {
+        this.samplingRate = samplingRate;
+        this.maxPaths = maxPaths;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Pointcut that matches all repositories, services and Web REST endpoints.
+     */
+    @Pointcut(
+        "within(@org.springframework.stereotype.Repository *)" +
+        " || within(@org.springframework.stereotype.Service *)" +
+        " || within(@org.springframework.web.bind.annotation.RestController *)"
+    )
+    public void springBeanPointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Pointcut that matches all Spring beans in the application's main packages.
+     */
+    @Pointcut("within(myapp.repository..*)" + " || within(myapp.service..*)" + " || within(myapp.web.rest..*)")
+    public void applicationPackagePointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Advice that times sampled calls.
+     *
+     * @param joinPoint join point for advice.
+     * @return result.
+     * @throws Throwable whatever the method throws.
+     */
+    @Around("applicationPackagePointcut() && springBeanPointcut()")
+    public Object profileAround(ProceedingJoinPoint joinPoint) throws Throwable {
+        CallStack stack = callStack.get();
+        if (stack.depth == 0) {
+            stack.sampled = samplingRate >= 1 || ThreadLocalRandom.current().nextDouble() < samplingRate;
+            // the whole call is recorded in the tree it started in, even if it is reset meanwhile
+            stack.tree = tree;
+            stack.current = stack.tree.root;
+        }
+        if (!stack.sampled) {
+            stack.depth++;
+            try {
+                return joinPoint.proceed();
+            } finally {
+                stack.depth--;
+            }
+        }
+
+        Probe probe = probe(joinPoint);
+        CallPath parent = stack.current;
+        CallPath path = child(stack.tree, parent, probe);
+        stack.current = path;
+        stack.depth++;
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            long nanos = System.nanoTime() - start;
+            stack.depth--;
+            stack.current = parent;
+            probe.timer.record(nanos, TimeUnit.NANOSECONDS);
+            path.record(nanos);
+        }
+    }
+
+    /**
+     * Get the statistics of all the call paths timed since startup, or since the last {@link #reset()}.
+     *
+     * @return the statistics, in no particular order.
+     */
+    public List<CallPathStatistics> callPaths() {
+        CallTree current = tree;
+        List<CallPathStatistics> statistics = new ArrayList<>(current.pathCount.get());
+        current.root.children.values().forEach(path -> path.collect("", statistics));
+        return statistics;
+    }
+
+    /**
+     * Forget the call paths timed so far. The timers are not reset.
+     */
+    public void reset() {
+        tree = new CallTree();
+    }
+
+    private Probe probe(ProceedingJoinPoint joinPoint) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        ConcurrentMap<Method, Probe> typeProbes = probes.get(joinPoint.getThis().getClass());
+        Probe probe = typeProbes.get(method);
+        if (probe == null) {
+            probe = typeProbes.computeIfAbsent(method, m -> new Probe(typeName(joinPoint.getThis().getClass()), m.getName()));
+        }
+        return probe;
+    }
+
+    private static String typeName(Class<?> type) {
+        if (Proxy.isProxyClass(type)) {
+            // Spring Data repositories are JDK proxies of their interface
+            for (Class<?> proxiedInterface : type.getInterfaces()) {
+                if (proxiedInterface.isAnnotationPresent(Repository.class)) {
+                    return proxiedInterface.getSimpleName();
+                }
+            }
+        }
+        return ClassUtils.getUserClass(type).getSimpleName();
+    }
+
+    private CallPath child(CallTree tree, CallPath parent, Probe probe) {
+        if (parent == CallPath.OVERFLOW) {
+            return CallPath.OVERFLOW;
+        }
+        CallPath child = parent.children.get(probe);
+        if (child != null) {
+            return child;
+        }
+        if (tree.pathCount.get() >= maxPaths) {
+            return CallPath.OVERFLOW;
+        }
+        return parent.children.computeIfAbsent(probe, p -> {
+            tree.pathCount.incrementAndGet();
+            return new CallPath(p);
+        });
+    }
+
+    /**
+     * The calls in progress on a thread.
+     */
+    private static final class CallStack {
+
+        private int depth;
+
+        private boolean sampled;
+
+        private CallTree tree;
+
+        private CallPath current;
+    }
+
+    /**
+     * The call paths timed since the last {@link #reset()}, and their number.
+     */
+    private static final class CallTree {
+
+        private final CallPath root = new CallPath(null);
+
+        private final AtomicInteger pathCount = new AtomicInteger();
+    }
+
+    /**
+     * A method, and its timer.
+     */
+    private final class Probe {
+
+        private final String name;
+
+        private final Timer timer;
+
+        private Probe(String typeName, String methodName) {
+            this.name = typeName + "." + methodName;
+            this.timer = Timer.builder(TIMER_NAME)
+                .description("Execution time of the sampled repository, service and REST calls")
+                .tag("class", typeName)
+                .tag("method", methodName)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        }
+    }
+
+    /**
+     * A method, called from the methods of the enclosing paths.
+     */
+    private static final class CallPath {
+
+        /**
+         * Path of the calls made once there are {@code max-paths} paths, which is not reported.
+         */
+        private static final CallPath OVERFLOW = new CallPath(null);
+
+        private final Probe probe;
+
+        private final ConcurrentMap<Probe, CallPath> children = new ConcurrentHashMap<>();
+
+        private final LongAdder count = new LongAdder();
+
+        private final LongAdder totalNanos = new LongAdder();
+
+        private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+
+        private CallPath(Probe probe) {
+            this.probe = probe;
+        }
+
+        private void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        private void collect(String parentName, List<CallPathStatistics> statistics) {
+            String name = parentName.isEmpty() ? probe.name : parentName + PATH_SEPARATOR + probe.name;
+            statistics.add(new CallPathStatistics(name, count.sum(), totalNanos.sum(), maxNanos.get()));
+            children.values().forEach(child -> child.collect(name, statistics));
+        }
+    }
+}
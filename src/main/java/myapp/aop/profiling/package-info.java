@@ -0,0 +1,4 @@
+/**
+ * Profiling aspect.
+ */
+package myapp.aop.profiling;
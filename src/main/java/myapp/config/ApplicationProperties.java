@@ -1,5 +1,7 @@
 package myapp.config;
 
+import java.math.BigDecimal;
+import java.time.Duration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -13,12 +15,84 @@ public class ApplicationProperties {
 
     private final Liquibase liquibase = new Liquibase();
 
+    private final StockReservation stockReservation = new StockReservation();
+
+    private final ProductImport productImport = new ProductImport();
+
+    private final OrderPlacement orderPlacement = new OrderPlacement();
+
+    private final PasswordHashing passwordHashing = new PasswordHashing();
+
+    private final JwtCache jwtCache = new JwtCache();
+
+    private final Execution execution = new Execution();
+
+    private final MailOutbox mailOutbox = new MailOutbox();
+
+    private final Profiler profiler = new Profiler();
+
+    private final ReadReplica readReplica = new ReadReplica();
+
+    private final OrderStorage orderStorage = new OrderStorage();
+
+    private final ProductIndex productIndex = new ProductIndex();
+
+    private final CategoryTree categoryTree = new CategoryTree();
+
     // jhipster-needle-application-properties-property
 
     public Liquibase getLiquibase() {
         return liquibase;
     }
 
+    public StockReservation getStockReservation() {
+        return stockReservation;
+    }
+
+    public ProductImport getProductImport() {
+        return productImport;
+    }
+
+    public OrderPlacement getOrderPlacement() {
+        return orderPlacement;
+    }
+
+    public PasswordHashing getPasswordHashing() {
+        return passwordHashing;
+    }
+
+    public JwtCache getJwtCache() {
+        return jwtCache;
+    }
+
+    public Execution getExecution() {
+        return execution;
+    }
+
+    public MailOutbox getMailOutbox() {
+        return mailOutbox;
+    }
+
+    public Profiler getProfiler() {
+        return profiler;
+    }
+
+    public ReadReplica getReadReplica() {
+        return readReplica;
+    }
+
+    public OrderStorage getOrderStorage() {
+        return orderStorage;
+    }
+
+    public ProductIndex getProductIndex() {
+        return productIndex;
+    }
+
+    public CategoryTree getCategoryTree() {
+        return categoryTree;
+    }
+
     // jhipster-needle-application-properties-property-getter
 
     public static class Liquibase {
@@ -33,5 +107,438 @@ public class ApplicationProperties {
             this.asyncStart = asyncStart;
         }
     }
+
+    public static class StockReservation {
+
+        /** How long a reservation stays pending before its quantity is put back in stock. */
+        private Duration ttl = Duration.ofMinutes(15);
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+
+    public static class ProductImport {
+
+        /** Number of rows inserted per transaction. */
+        private int chunkSize = 1000;
+
+        /** Maximum number of row errors detailed in an import report; further errors are only counted. */
+        private int maxReportedErrors = 1000;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public int getMaxReportedErrors() {
+            return maxReportedErrors;
+        }
+
+        public void setMaxReportedErrors(int maxReportedErrors) {
+            this.maxReportedErrors = maxReportedErrors;
+        }
+    }
+
+    public static class OrderPlacement {
+
+        /** Flat shipping cost of an order. */
+        private BigDecimal shippingCost = new BigDecimal("9.90");
+
+        /** Orders whose products cost at least this much are shipped for free. */
+        private BigDecimal freeShippingThreshold = new BigDecimal("100.00");
+
+        public BigDecimal getShippingCost() {
+            return shippingCost;
+        }
+
+        public void setShippingCost(BigDecimal shippingCost) {
+            this.shippingCost = shippingCost;
+        }
+
+        public BigDecimal getFreeShippingThreshold() {
+            return freeShippingThreshold;
+        }
+
+        public void setFreeShippingThreshold(BigDecimal freeShippingThreshold) {
+            this.freeShippingThreshold = freeShippingThreshold;
+        }
+    }
+
+    public static class PasswordHashing {
+
+        /** Number of passwords hashed or checked at once; defaults to half the available processors. */
+        private int poolSize = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+        /** Number of calls waiting for a free thread before further calls are rejected. */
+        private int queueCapacity = 100;
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public void setPoolSize(int poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+
+    public static class JwtCache {
+
+        /** Maximum number of decoded tokens kept. */
+        private long maxSize = 10000;
+
+        /** Maximum time a decoded token is kept, even if it expires later. */
+        private Duration maxTtl = Duration.ofMinutes(10);
+
+        /** How long a malformed token is remembered as such. */
+        private Duration negativeTtl = Duration.ofMinutes(1);
+
+        public long getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(long maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public Duration getMaxTtl() {
+            return maxTtl;
+        }
+
+        public void setMaxTtl(Duration maxTtl) {
+            this.maxTtl = maxTtl;
+        }
+
+        public Duration getNegativeTtl() {
+            return negativeTtl;
+        }
+
+        public void setNegativeTtl(Duration negativeTtl) {
+            this.negativeTtl = negativeTtl;
+        }
+    }
+
+    public static class Execution {
+
+        /**
+         * Threads running servlet requests and {@code @Async} methods: {@code platform} thread pools, or one
+         * {@code virtual} thread per task.
+         */
+        private Mode mode = Mode.PLATFORM;
+
+        public Mode getMode() {
+            return mode;
+        }
+
+        public void setMode(Mode mode) {
+            this.mode = mode;
+        }
+
+        public enum Mode {
+            PLATFORM,
+            VIRTUAL,
+        }
+    }
+
+    public static class MailOutbox {
+
+        /** Time between two polls of the outbox; only read at startup. */
+        private Duration pollInterval = Duration.ofSeconds(5);
+
+        /** Number of emails sent over one SMTP connection. */
+        private int batchSize = 50;
+
+        /** How long an email being sent is hidden from other polls. */
+        private Duration lease = Duration.ofMinutes(5);
+
+        /** Number of attempts to send an email before giving up. */
+        private int maxAttempts = 8;
+
+        /** Delay before the first retry, doubled on each further attempt. */
+        private Duration initialBackoff = Duration.ofSeconds(30);
+
+        /** Maximum delay between two attempts. */
+        private Duration maxBackoff = Duration.ofHours(1);
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getLease() {
+            return lease;
+        }
+
+        public void setLease(Duration lease) {
+            this.lease = lease;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public Duration getInitialBackoff() {
+            return initialBackoff;
+        }
+
+        public void setInitialBackoff(Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+        }
+
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+    }
+
+    public static class Profiler {
+
+        /** Whether repository, service and REST calls are timed. */
+        private boolean enabled = true;
+
+        /** Share of the outermost calls timed, together with all the calls they make, between 0 and 1. */
+        private double samplingRate = 0.01;
+
+        /** Maximum number of distinct call paths kept for {@code /management/hotmethods}. */
+        private int maxPaths = 1000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getSamplingRate() {
+            return samplingRate;
+        }
+
+        public void setSamplingRate(double samplingRate) {
+            this.samplingRate = samplingRate;
+        }
+
+        public int getMaxPaths() {
+            return maxPaths;
+        }
+
+        public void setMaxPaths(int maxPaths) {
+            this.maxPaths = maxPaths;
+        }
+    }
+
+    public static class ReadReplica {
+
+        /** Whether read-only transactions are sent to the replica; only read at startup. */
+        private boolean enabled = false;
+
+        /** JDBC URL of the replica. */
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        /** Maximum number of connections to the replica. */
+        private int maximumPoolSize = 10;
+
+        /** Query returning the replication lag of the replica, in seconds; without it the lag is not checked. */
+        private String lagQuery;
+
+        /** Replication lag above which read-only transactions go to the primary. */
+        private Duration maxLag = Duration.ofSeconds(5);
+
+        /** Time between two checks of the replica; only read at startup. */
+        private Duration checkInterval = Duration.ofSeconds(5);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public int getMaximumPoolSize() {
+            return maximumPoolSize;
+        }
+
+        public void setMaximumPoolSize(int maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+        }
+
+        public String getLagQuery() {
+            return lagQuery;
+        }
+
+        public void setLagQuery(String lagQuery) {
+            this.lagQuery = lagQuery;
+        }
+
+        public Duration getMaxLag() {
+            return maxLag;
+        }
+
+        public void setMaxLag(Duration maxLag) {
+            this.maxLag = maxLag;
+        }
+
+        public Duration getCheckInterval() {
+            return checkInterval;
+        }
+
+        public void setCheckInterval(Duration checkInterval) {
+            this.checkInterval = checkInterval;
+        }
+    }
+
+    public static class OrderStorage {
+
+        /** Number of months of orders listed when no date window is requested. */
+        private int defaultWindowMonths = 3;
+
+        /** Number of months after their shipping after which orders are archived. */
+        private int archiveAfterMonths = 12;
+
+        /** Number of orders archived per transaction. */
+        private int archivalBatchSize = 500;
+
+        /** When orders are archived, and their partitions created; only read at startup. */
+        private String archivalCron = "0 30 3 * * ?";
+
+        /** Number of monthly partitions created ahead of the current month, on PostgreSQL. */
+        private int partitionsAhead = 3;
+
+        public int getDefaultWindowMonths() {
+            return defaultWindowMonths;
+        }
+
+        public void setDefaultWindowMonths(int defaultWindowMonths) {
+            this.defaultWindowMonths = defaultWindowMonths;
+        }
+
+        public int getArchiveAfterMonths() {
+            return archiveAfterMonths;
+        }
+
+        public void setArchiveAfterMonths(int archiveAfterMonths) {
+            this.archiveAfterMonths = archiveAfterMonths;
+        }
+
+        public int getArchivalBatchSize() {
+            return archivalBatchSize;
+        }
+
+        public void setArchivalBatchSize(int archivalBatchSize) {
+            this.archivalBatchSize = archivalBatchSize;
+        }
+
+        public String getArchivalCron() {
+            return archivalCron;
+        }
+
+        public void setArchivalCron(String archivalCron) {
+            this.archivalCron = archivalCron;
+        }
+
+        public int getPartitionsAhead() {
+            return partitionsAhead;
+        }
+
+        public void setPartitionsAhead(int partitionsAhead) {
+            this.partitionsAhead = partitionsAhead;
+        }
+    }
+
+    public static class ProductIndex {
+
+        /**
+         * Time between two rebuilds of the in-memory product indexes, which brings in the writes of the other instances
+         * and those not made through the services; only read at startup.
+         */
+        private Duration refreshInterval = Duration.ofMinutes(10);
+
+        public Duration getRefreshInterval() {
+            return refreshInterval;
+        }
+
+        public void setRefreshInterval(Duration refreshInterval) {
+            this.refreshInterval = refreshInterval;
+        }
+    }
+
+    public static class CategoryTree {
+
+        /**
+         * Time between two reloads of the in-memory category tree, which brings in the writes of the other instances
+         * and those not made through {@link myapp.service.CategoryService}; only read at startup.
+         */
+        private Duration refreshInterval = Duration.ofMinutes(10);
+
+        public Duration getRefreshInterval() {
+            return refreshInterval;
+        }
+
+        public void setRefreshInterval(Duration refreshInterval) {
+            this.refreshInterval = refreshInterval;
+        }
+    }
     // jhipster-needle-application-properties-property-class
 }
@@ -0,0 +1,26 @@
+package myapp.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import myapp.aop.profiling.ProfilingAspect;
+import myapp.management.HotMethodsEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+
+@Configuration
+@EnableAspectJAutoProxy
+@ConditionalOnProperty(prefix = "application.profiler", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ProfilingConfiguration {
+
+    @Bean
+    public ProfilingAspect profilingAspect(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.Profiler profiler = applicationProperties.getProfiler();
+        return new ProfilingAspect(profiler.getSamplingRate(), profiler.getMaxPaths(), meterRegistry);
+    }
+
+    @Bean
+    public HotMethodsEndpoint hotMethodsEndpoint(ProfilingAspect profilingAspect) {
+        return new HotMethodsEndpoint(profilingAspect);
+    }
+}
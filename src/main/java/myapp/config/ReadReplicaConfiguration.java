@@ -0,0 +1,113 @@
+package myapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.util.StringUtils;
+
+/**
+ * Configuration of the read replica: read-only transactions, such as the {@code @Transactional(readOnly = true)}
+ * service methods, run on a replica connection pool, all the other ones on the primary pool.
+ * <p>
+ * The primary pool is built from the {@code spring.datasource} properties, as Spring Boot would, the replica pool from
+ * {@code application.read-replica}: their metrics are published under their pool names, {@code Hikari} and
+ * {@code HikariReplica}. The {@link LazyConnectionDataSourceProxy} exposed to JPA only picks a pool on the first
+ * statement of a transaction, once the transaction manager has marked its connection read-only (or not).
+ * <p>
+ * What is read from the replica is never cached, as it may be older than what the last write evicted: read-only
+ * transactions do not fill the second-level cache, see {@link ReplicaAwareJpaTransactionManager}, and the lookups which
+ * fill the user caches run in read-write transactions, on the primary.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "application.read-replica", name = "enabled", havingValue = "true")
+public class ReadReplicaConfiguration {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReadReplicaConfiguration.class);
+
+    private static final String REPLICA_POOL_NAME = "HikariReplica";
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        if (StringUtils.hasText(dataSourceProperties.getName())) {
+            dataSource.setPoolName(dataSourceProperties.getName());
+        }
+        return dataSource;
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(ApplicationProperties applicationProperties) {
+        ApplicationProperties.ReadReplica readReplica = applicationProperties.getReadReplica();
+        HikariDataSource dataSource = DataSourceBuilder.create()
+            .type(HikariDataSource.class)
+            .url(readReplica.getUrl())
+            .username(readReplica.getUsername())
+            .password(readReplica.getPassword())
+            .build();
+        dataSource.setPoolName(REPLICA_POOL_NAME);
+        dataSource.setMaximumPoolSize(readReplica.getMaximumPoolSize());
+        // as on the primary pool: Hibernate is told that connections come with auto-commit disabled
+        dataSource.setAutoCommit(false);
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(
+        @Qualifier("replicaDataSource") DataSource replicaDataSource,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        ApplicationProperties.ReadReplica readReplica = applicationProperties.getReadReplica();
+        ReplicaLagMonitor replicaLagMonitor = new ReplicaLagMonitor(replicaDataSource, readReplica.getLagQuery(), readReplica.getMaxLag());
+        Gauge.builder("jdbc.replica.lag", replicaLagMonitor, ReplicaLagMonitor::getLagSeconds)
+            .description("Replication lag of the read replica, as of its last check")
+            .baseUnit("seconds")
+            .tag("name", REPLICA_POOL_NAME)
+            .register(meterRegistry);
+        Gauge.builder("jdbc.replica.stale", replicaLagMonitor, monitor -> monitor.isStale() ? 1 : 0)
+            .description("Whether read-only transactions fall back to the primary")
+            .tag("name", REPLICA_POOL_NAME)
+            .register(meterRegistry);
+        return replicaLagMonitor;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+        @Qualifier("primaryDataSource") DataSource primaryDataSource,
+        @Qualifier("replicaDataSource") DataSource replicaDataSource,
+        ReplicaLagMonitor replicaLagMonitor,
+        MeterRegistry meterRegistry
+    ) {
+        LOG.debug("Sending read-only transactions to the read replica");
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(
+            new ReplicaFallbackDataSource(replicaDataSource, primaryDataSource, replicaLagMonitor, meterRegistry)
+        );
+        return dataSource;
+    }
+
+    @Bean
+    public JpaTransactionManager transactionManager(ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers) {
+        JpaTransactionManager transactionManager = new ReplicaAwareJpaTransactionManager();
+        transactionManagerCustomizers.ifAvailable(customizers -> customizers.customize(transactionManager));
+        return transactionManager;
+    }
+}
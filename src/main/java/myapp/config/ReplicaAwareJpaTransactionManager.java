@@ -0,0 +1,43 @@
+package myapp.config;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * {@link JpaTransactionManager} of the applications which send read-only transactions to a read replica.
+ * <p>
+ * Read-only transactions read the second-level cache but never fill it: what they load may come from a replica which
+ * has not replayed the latest writes yet, and caching it would serve the old state, after the write has evicted it,
+ * until the entry expires. The cache is only filled by read-write transactions, which run on the primary.
+ */
+public class ReplicaAwareJpaTransactionManager extends JpaTransactionManager {
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        super.doBegin(transaction, definition);
+        if (definition.isReadOnly()) {
+            setCacheMode(CacheMode.GET);
+        }
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        // the entity manager outlives the transaction when it was opened before it
+        setCacheMode(CacheMode.NORMAL);
+        super.doCleanupAfterCompletion(transaction);
+    }
+
+    private void setCacheMode(CacheMode cacheMode) {
+        if (TransactionSynchronizationManager.getResource(obtainEntityManagerFactory()) instanceof EntityManagerHolder holder) {
+            EntityManager entityManager = holder.getEntityManager();
+            if (entityManager.isOpen()) {
+                entityManager.unwrap(Session.class).setCacheMode(cacheMode);
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package myapp.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Connection;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * The {@link DataSource} of read-only transactions: the read replica, or the primary while {@link ReplicaLagMonitor}
+ * finds the replica stale.
+ */
+public class ReplicaFallbackDataSource extends DelegatingDataSource {
+
+    private final DataSource primary;
+
+    private final ReplicaLagMonitor replicaLagMonitor;
+
+    private final Counter replicaConnections;
+
+    private final Counter primaryConnections;
+
+    public ReplicaFallbackDataSource(DataSource replica, DataSource primary, ReplicaLagMonitor replicaLagMonitor, MeterRegistry meterRegistry) {
+        super(replica);
+        this.primary = primary;
+        this.replicaLagMonitor = replicaLagMonitor;
+        this.replicaConnections = readOnlyConnections(meterRegistry, "replica");
+        this.primaryConnections = readOnlyConnections(meterRegistry, "primary");
+    }
+
+    private static Counter readOnlyConnections(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("jdbc.connections.read.only")
+            .description("Number of connections handed out to read-only transactions")
+            .tag("target", target)
+            .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (replicaLagMonitor.isStale()) {
+            primaryConnections.increment();
+            return primary.getConnection();
+        }
+        replicaConnections.increment();
+        return obtainTargetDataSource().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (replicaLagMonitor.isStale()) {
+            primaryConnections.increment();
+            return primary.getConnection(username, password);
+        }
+        replicaConnections.increment();
+        return obtainTargetDataSource().getConnection(username, password);
+    }
+}
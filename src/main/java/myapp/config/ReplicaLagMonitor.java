@@ -0,0 +1,77 @@
+package myapp.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.StringUtils;
+
+/**
+ * Checks, every {@code check-interval}, that the read replica answers and, given a {@code lag-query}, that it is at most
+ * {@code max-lag} behind the primary. Until a check passes again, the replica is stale: read-only transactions fall back
+ * to the primary, see {@link ReplicaFallbackDataSource}.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final DataSource replica;
+
+    private final String lagQuery;
+
+    private final Duration maxLag;
+
+    private volatile boolean stale;
+
+    private volatile double lagSeconds = Double.NaN;
+
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, Duration maxLag) {
+        this.replica = replica;
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+    }
+
+    @Scheduled(fixedDelayString = "${application.read-replica.check-interval:PT5S}")
+    public void check() {
+        boolean wasStale = stale;
+        try (Connection connection = replica.getConnection()) {
+            lagSeconds = StringUtils.hasText(lagQuery) ? queryLagSeconds(connection) : 0;
+            stale = lagSeconds * 1000 > maxLag.toMillis();
+        } catch (SQLException | RuntimeException e) {
+            LOG.debug("Could not check the read replica", e);
+            lagSeconds = Double.NaN;
+            stale = true;
+        }
+        if (stale && !wasStale) {
+            LOG.warn("Read replica stale (lag {}s), sending read-only transactions to the primary", lagSeconds);
+        } else if (!stale && wasStale) {
+            LOG.info("Read replica caught up (lag {}s), sending read-only transactions to it again", lagSeconds);
+        }
+    }
+
+    private double queryLagSeconds(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            // no lag is reported before the replica has replayed anything
+            return resultSet.next() ? resultSet.getDouble(1) : 0;
+        }
+    }
+
+    /**
+     * @return whether read-only transactions should go to the primary.
+     */
+    public boolean isStale() {
+        return stale;
+    }
+
+    /**
+     * @return the replication lag measured by the last check, in seconds, or {@code NaN} if it failed.
+     */
+    public double getLagSeconds() {
+        return lagSeconds;
+    }
+}
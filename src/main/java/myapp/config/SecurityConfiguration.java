@@ -3,6 +3,7 @@ package myapp.config;
 import static org.springframework.security.config.Customizer.withDefaults;
 import static org.springframework.security.web.util.matcher.AntPathRequestMatcher.antMatcher;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import myapp.security.*;
 import myapp.web.filter.SpaWebFilter;
 import org.springframework.context.annotation.Bean;
@@ -39,9 +40,18 @@ public class SecurityConfiguration {
         this.jHipsterProperties = jHipsterProperties;
     }
 
+    /**
+     * BCrypt, run on a bounded pool: see {@link BoundedPasswordEncoder}.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.PasswordHashing passwordHashing = applicationProperties.getPasswordHashing();
+        return new BoundedPasswordEncoder(
+            new BCryptPasswordEncoder(),
+            passwordHashing.getPoolSize(),
+            passwordHashing.getQueueCapacity(),
+            meterRegistry
+        );
     }
 
     @Bean
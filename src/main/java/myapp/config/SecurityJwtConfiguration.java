@@ -4,16 +4,22 @@ import static myapp.security.SecurityUtils.JWT_ALGORITHM;
 
 import com.nimbusds.jose.jwk.source.ImmutableSecret;
 import com.nimbusds.jose.util.Base64;
+import java.time.Clock;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 import myapp.management.SecurityMetersService;
+import myapp.security.CachingJwtDecoder;
+import myapp.security.JwtErrorClassifier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtValidators;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
 
@@ -26,28 +32,36 @@ public class SecurityJwtConfiguration {
     private String jwtKey;
 
     @Bean
-    public JwtDecoder jwtDecoder(SecurityMetersService metersService) {
+    public JwtDecoder jwtDecoder(SecurityMetersService metersService, ApplicationProperties applicationProperties) {
+        Clock clock = Clock.systemUTC();
         NimbusJwtDecoder jwtDecoder = NimbusJwtDecoder.withSecretKey(getSecretKey()).macAlgorithm(JWT_ALGORITHM).build();
-        return token -> {
+        // the defaults keep the X.509 thumbprint check; the classifier recognizes expired tokens by the error of its own validator
+        jwtDecoder.setJwtValidator(
+            new DelegatingOAuth2TokenValidator<>(JwtValidators.createDefault(), JwtErrorClassifier.timestampValidator(clock))
+        );
+        JwtDecoder meteredDecoder = token -> {
             try {
                 return jwtDecoder.decode(token);
-            } catch (Exception e) {
-                if (e.getMessage().contains("Invalid signature")) {
-                    metersService.trackTokenInvalidSignature();
-                } else if (e.getMessage().contains("Jwt expired at")) {
-                    metersService.trackTokenExpired();
-                } else if (
-                    e.getMessage().contains("Invalid JWT serialization") ||
-                    e.getMessage().contains("Malformed token") ||
-                    e.getMessage().contains("Invalid unsecured/JWS/JWE")
-                ) {
-                    metersService.trackTokenMalformed();
-                } else {
-                    LOG.error("Unknown JWT error {}", e.getMessage());
+            } catch (JwtException e) {
+                switch (JwtErrorClassifier.classify(e)) {
+                    case INVALID_SIGNATURE -> metersService.trackTokenInvalidSignature();
+                    case EXPIRED -> metersService.trackTokenExpired();
+                    case MALFORMED -> metersService.trackTokenMalformed();
+                    case UNSUPPORTED -> metersService.trackTokenUnsupported();
+                    case UNKNOWN -> LOG.error("Unknown JWT error {}", e.getMessage());
                 }
                 throw e;
             }
         };
+        ApplicationProperties.JwtCache jwtCache = applicationProperties.getJwtCache();
+        return new CachingJwtDecoder(
+            meteredDecoder,
+            metersService,
+            jwtCache.getMaxSize(),
+            jwtCache.getMaxTtl(),
+            jwtCache.getNegativeTtl(),
+            clock
+        );
     }
 
     @Bean
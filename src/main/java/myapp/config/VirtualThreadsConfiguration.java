@@ -0,0 +1,67 @@
+package myapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.undertow.UndertowServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the {@code virtual} execution mode: servlet requests are handled on virtual threads rather than on
+ * the Undertow worker pool, and database connections are rationed ahead of the connection pool.
+ * <p>
+ * {@code @Async} methods are run on virtual threads by {@link AsyncConfiguration}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "application.execution", name = "mode", havingValue = "virtual")
+public class VirtualThreadsConfiguration {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VirtualThreadsConfiguration.class);
+
+    @Bean
+    public WebServerFactoryCustomizer<UndertowServletWebServerFactory> virtualThreadsUndertowCustomizer() {
+        return factory -> {
+            LOG.debug("Dispatching servlet requests to virtual threads");
+            factory.addDeploymentInfoCustomizers(deploymentInfo -> deploymentInfo.setExecutor(Executors.newVirtualThreadPerTaskExecutor()));
+        };
+    }
+
+    /**
+     * Let at most {@code maximum-pool-size} threads ask the connection pool for a connection at once, waiting at most
+     * its {@code connection-timeout} for their turn, see {@link ConnectionLimitingDataSource}. The wrapper replaces the
+     * pool bean, and closes the pool when the context closes.
+     */
+    @Bean
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource hikariDataSource)) {
+                    return bean;
+                }
+                LOG.debug("Limiting {} to {} concurrent connections", beanName, hikariDataSource.getMaximumPoolSize());
+                ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(
+                    hikariDataSource,
+                    hikariDataSource.getMaximumPoolSize(),
+                    Duration.ofMillis(hikariDataSource.getConnectionTimeout())
+                );
+                meterRegistry.ifAvailable(registry ->
+                    Gauge.builder("jdbc.connections.limiter.waiting", dataSource, ConnectionLimitingDataSource::getWaitingCount)
+                        .description("Number of threads waiting for their turn to get a database connection")
+                        .tag("name", beanName)
+                        .register(registry)
+                );
+                return dataSource;
+            }
+        };
+    }
+}
@@ -6,8 +6,10 @@ import jakarta.servlet.*;
 import java.io.File;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
+import myapp.web.rest.util.PageSizeGuard;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.data.web.SpringDataWebProperties;
 import org.springframework.boot.web.server.*;
 import org.springframework.boot.web.servlet.ServletContextInitializer;
 import org.springframework.boot.web.servlet.server.ConfigurableServletWebServerFactory;
@@ -19,6 +21,8 @@ import org.springframework.util.CollectionUtils;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import tech.jhipster.config.JHipsterConstants;
 import tech.jhipster.config.JHipsterProperties;
 import tech.jhipster.config.h2.H2ConfigurationHelper;
@@ -27,7 +31,7 @@ import tech.jhipster.config.h2.H2ConfigurationHelper;
  * Configuration of web application with Servlet 3.0 APIs.
  */
 @Configuration
-public class WebConfigurer implements ServletContextInitializer, WebServerFactoryCustomizer<WebServerFactory> {
+public class WebConfigurer implements ServletContextInitializer, WebServerFactoryCustomizer<WebServerFactory>, WebMvcConfigurer {
 
     private static final Logger LOG = LoggerFactory.getLogger(WebConfigurer.class);
 
@@ -35,9 +39,12 @@ public class WebConfigurer implements ServletContextInitializer, WebServerFactor
 
     private final JHipsterProperties jHipsterProperties;
 
-    public WebConfigurer(Environment env, JHipsterProperties jHipsterProperties) {
+    private final SpringDataWebProperties springDataWebProperties;
+
+    public WebConfigurer(Environment env, JHipsterProperties jHipsterProperties, SpringDataWebProperties springDataWebProperties) {
         this.env = env;
         this.jHipsterProperties = jHipsterProperties;
+        this.springDataWebProperties = springDataWebProperties;
     }
 
     @Override
@@ -86,6 +93,17 @@ public class WebConfigurer implements ServletContextInitializer, WebServerFactor
         return extractedPath.substring(0, extractionEndIndex);
     }
 
+    /**
+     * Refuse pages larger than {@code spring.data.web.pageable.max-page-size} instead of silently truncating them.
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        SpringDataWebProperties.Pageable pageable = springDataWebProperties.getPageable();
+        registry
+            .addInterceptor(new PageSizeGuard(pageable.getPrefix() + pageable.getSizeParameter(), pageable.getMaxPageSize()))
+            .addPathPatterns("/api/**");
+    }
+
     @Bean
     public CorsFilter corsFilter() {
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -0,0 +1,9 @@
+package myapp.domain.enumeration;
+
+/**
+ * The MailOutboxStatus enumeration.
+ */
+public enum MailOutboxStatus {
+    PENDING,
+    FAILED,
+}
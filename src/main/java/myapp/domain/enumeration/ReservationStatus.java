@@ -0,0 +1,10 @@
+package myapp.domain.enumeration;
+
+/**
+ * The ReservationStatus enumeration.
+ */
+public enum ReservationStatus {
+    PENDING,
+    COMMITTED,
+    RELEASED,
+}
@@ -0,0 +1,60 @@
+package myapp.management;
+
+import java.util.Comparator;
+import java.util.List;
+import myapp.aop.profiling.CallPathStatistics;
+import myapp.aop.profiling.ProfilingAspect;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+/**
+ * Endpoint listing the slowest call paths timed by the {@link ProfilingAspect}: {@code /management/hotmethods}.
+ * <p>
+ * Paths are sorted by mean execution time, or by {@code max}, {@code total} or {@code count} with the {@code sort}
+ * parameter, and the first {@code limit} ones, 20 by default, are returned. Deleting the endpoint forgets the paths timed
+ * so far.
+ */
+@Endpoint(id = "hotmethods")
+public class HotMethodsEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final ProfilingAspect profilingAspect;
+
+    public HotMethodsEndpoint(ProfilingAspect profilingAspect) {
+        this.profilingAspect = profilingAspect;
+    }
+
+    @ReadOperation
+    public List<CallPathStatistics> hotMethods(@Nullable String sort, @Nullable Integer limit) {
+        return profilingAspect
+            .callPaths()
+            .stream()
+            .sorted(comparator(sort).reversed())
+            .limit(limit == null ? DEFAULT_LIMIT : Math.max(0, limit))
+            .toList();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        profilingAspect.reset();
+    }
+
+    private static Comparator<CallPathStatistics> comparator(@Nullable String sort) {
+        if (sort == null || "mean".equals(sort)) {
+            return Comparator.comparingDouble(CallPathStatistics::getMeanMillis);
+        }
+        return switch (sort) {
+            case "max" -> Comparator.comparingDouble(CallPathStatistics::getMaxMillis);
+            case "total" -> Comparator.comparingDouble(CallPathStatistics::getTotalMillis);
+            case "count" -> Comparator.comparingLong(CallPathStatistics::getCount);
+            default -> throw new InvalidEndpointRequestException(
+                "Unknown sort '" + sort + "', expected mean, max, total or count",
+                "Unknown sort"
+            );
+        };
+    }
+}
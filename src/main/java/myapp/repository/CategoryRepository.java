@@ -6,6 +6,7 @@ import myapp.domain.Category;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -27,4 +28,30 @@ public interface CategoryRepository extends CategoryRepositoryWithBagRelationshi
     default Page<Category> findAllWithEagerRelationships(Pageable pageable) {
         return this.fetchBagRelationships(this.findAll(pageable));
     }
+
+    @Query("select category.id, parent.id from Category category left join category.parent parent order by category.id")
+    List<Object[]> findAllIdAndParentId();
+
+    /**
+     * Get the version of a category together with the number and versions of its products, without loading them.
+     *
+     * @param id the id of the category.
+     * @return the versions, or empty if the category does not exist.
+     */
+    @Query(
+        "select category.version as version, count(product) as productCount, coalesce(sum(product.version), 0) as productVersions " +
+        "from Category category left join category.products product where category.id = :id group by category.version"
+    )
+    Optional<ContentVersion> findContentVersionById(@Param("id") Long id);
+
+    /**
+     * What the representation of a category depends on.
+     */
+    interface ContentVersion {
+        Long getVersion();
+
+        Long getProductCount();
+
+        Long getProductVersions();
+    }
 }
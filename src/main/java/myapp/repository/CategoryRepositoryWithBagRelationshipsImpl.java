@@ -2,22 +2,26 @@ package myapp.repository;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.IntStream;
 import myapp.domain.Category;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 
 /**
  * Utility repository to load bag relationships based on https://vladmihalcea.com/hibernate-multiplebagfetchexception/
+ * <p>
+ * The products are loaded with the {@link Category#PRODUCTS_GRAPH} entity graph in a single query per call,
+ * whatever the number of categories.
  */
 public class CategoryRepositoryWithBagRelationshipsImpl implements CategoryRepositoryWithBagRelationships {
 
     private static final String ID_PARAMETER = "id";
-    private static final String CATEGORIES_PARAMETER = "categories";
+    private static final String IDS_PARAMETER = "ids";
+    private static final String FETCH_GRAPH_HINT = "jakarta.persistence.fetchgraph";
 
     @PersistenceContext
     private EntityManager entityManager;
@@ -39,22 +43,45 @@ public class CategoryRepositoryWithBagRelationshipsImpl implements CategoryRepos
 
     Category fetchProducts(Category result) {
         return entityManager
-            .createQuery("select category from Category category left join fetch category.products where category.id = :id", Category.class)
+            .createQuery("select category from Category category where category.id = :id", Category.class)
             .setParameter(ID_PARAMETER, result.getId())
+            .setHint(FETCH_GRAPH_HINT, entityManager.getEntityGraph(Category.PRODUCTS_GRAPH))
             .getSingleResult();
     }
 
     List<Category> fetchProducts(List<Category> categories) {
-        HashMap<Object, Integer> order = new HashMap<>();
-        IntStream.range(0, categories.size()).forEach(index -> order.put(categories.get(index).getId(), index));
-        List<Category> result = entityManager
-            .createQuery(
-                "select category from Category category left join fetch category.products where category in :categories",
-                Category.class
-            )
-            .setParameter(CATEGORIES_PARAMETER, categories)
+        if (categories.isEmpty()) {
+            return categories;
+        }
+        long[] ids = new long[categories.size()];
+        List<Long> parameter = new ArrayList<>(categories.size());
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = categories.get(i).getId();
+            parameter.add(ids[i]);
+        }
+        List<Category> fetched = entityManager
+            .createQuery("select category from Category category where category.id in :ids order by category.id", Category.class)
+            .setParameter(IDS_PARAMETER, parameter)
+            .setHint(FETCH_GRAPH_HINT, entityManager.getEntityGraph(Category.PRODUCTS_GRAPH))
             .getResultList();
-        Collections.sort(result, (o1, o2) -> Integer.compare(order.get(o1.getId()), order.get(o2.getId())));
+        return inOriginalOrder(ids, fetched);
+    }
+
+    /**
+     * Puts the fetched categories, ordered by id, back in the order of the page with a binary search on primitive ids.
+     */
+    static List<Category> inOriginalOrder(long[] ids, List<Category> fetchedById) {
+        long[] fetchedIds = new long[fetchedById.size()];
+        for (int i = 0; i < fetchedIds.length; i++) {
+            fetchedIds[i] = fetchedById.get(i).getId();
+        }
+        List<Category> result = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            int index = Arrays.binarySearch(fetchedIds, id);
+            if (index >= 0) {
+                result.add(fetchedById.get(index));
+            }
+        }
         return result;
     }
 }
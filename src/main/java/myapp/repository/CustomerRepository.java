@@ -1,7 +1,10 @@
 package myapp.repository;
 
 import myapp.domain.Customer;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +12,9 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface CustomerRepository extends JpaRepository<Customer, Long> {}
+public interface CustomerRepository extends JpaRepository<Customer, Long> {
+    @Query("select customer from Customer customer where customer.id > :cursor order by customer.id")
+    Slice<Customer> findAllAfterId(@Param("cursor") Long cursor, Pageable pageable);
+
+    Slice<Customer> findAllBy(Pageable pageable);
+}
@@ -0,0 +1,33 @@
+package myapp.repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
+import java.util.List;
+import myapp.domain.MailOutboxMessage;
+import myapp.domain.enumeration.MailOutboxStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the MailOutboxMessage entity.
+ */
+@Repository
+public interface MailOutboxMessageRepository extends JpaRepository<MailOutboxMessage, Long> {
+    /**
+     * Lock the oldest messages due for sending, skipping those already locked by another instance.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query(
+        "select message from MailOutboxMessage message where message.status = :status and message.nextAttemptDate <= :now order by message.nextAttemptDate"
+    )
+    List<MailOutboxMessage> findDueForUpdate(@Param("status") MailOutboxStatus status, @Param("now") Instant now, Pageable pageable);
+
+    long countByStatus(MailOutboxStatus status);
+
+    @Query("select min(message.createdDate) from MailOutboxMessage message where message.status = :status")
+    Instant findOldestCreatedDateByStatus(@Param("status") MailOutboxStatus status);
+}
@@ -1,7 +1,18 @@
 package myapp.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 import myapp.domain.Order;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +20,91 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {}
+public interface OrderRepository extends JpaRepository<Order, Long> {
+    @Query("select jhiOrder from Order jhiOrder where jhiOrder.id > :cursor and jhiOrder.orderDate >= :from order by jhiOrder.id")
+    Slice<Order> findAllAfterIdByOrderDateFrom(@Param("cursor") Long cursor, @Param("from") Instant from, Pageable pageable);
+
+    @Query(
+        "select jhiOrder from Order jhiOrder where jhiOrder.id > :cursor and jhiOrder.orderDate >= :from and jhiOrder.orderDate < :to " +
+        "order by jhiOrder.id"
+    )
+    Slice<Order> findAllAfterIdByOrderDateBetween(
+        @Param("cursor") Long cursor,
+        @Param("from") Instant from,
+        @Param("to") Instant to,
+        Pageable pageable
+    );
+
+    Slice<Order> findSliceByOrderDateGreaterThanEqual(Instant from, Pageable pageable);
+
+    Slice<Order> findSliceByOrderDateGreaterThanEqualAndOrderDateLessThan(Instant from, Instant to, Pageable pageable);
+
+    Page<Order> findAllByOrderDateGreaterThanEqual(Instant from, Pageable pageable);
+
+    Page<Order> findAllByOrderDateGreaterThanEqualAndOrderDateLessThan(Instant from, Instant to, Pageable pageable);
+
+    /**
+     * Read all the orders in id order, {@code 500} rows per JDBC round trip.
+     * The stream must be consumed, and closed, within a transaction.
+     */
+    @Query("select jhiOrder from Order jhiOrder order by jhiOrder.id")
+    @QueryHints(
+        {
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        }
+    )
+    Stream<Order> streamAllBy();
+
+    /**
+     * Lock the orders shipped before a date, oldest first, skipping those already locked by another instance.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select jhiOrder from Order jhiOrder where jhiOrder.shippedDate < :shippedBefore order by jhiOrder.shippedDate")
+    List<Order> findShippedBeforeForUpdate(@Param("shippedBefore") Instant shippedBefore, Pageable pageable);
+
+    /**
+     * Copy orders to {@code jhi_order_archive}.
+     * <p>
+     * Native as the archive is not mapped, and scoped to its own query space so that no cache region is evicted.
+     *
+     * @return the number of orders copied.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(
+        value = "insert into jhi_order_archive (id, order_date, shipped_date, status, total_amount, shipping_cost, tracking_number, " +
+        "shipping_address_id, customer_id, archived_date) " +
+        "select id, order_date, shipped_date, status, total_amount, shipping_cost, tracking_number, shipping_address_id, customer_id, " +
+        "current_timestamp from jhi_order where id in (:ids)",
+        nativeQuery = true
+    )
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "jhi_order_archive"))
+    int archiveAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Copy the links between orders and their products to {@code rel_order_archive__product}, see {@link #archiveAllByIdIn}.
+     *
+     * @return the number of links copied.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(
+        value = "insert into rel_order_archive__product (order_id, product_id) select order_id, id from product where order_id in (:ids)",
+        nativeQuery = true
+    )
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "jhi_order_archive"))
+    int archiveProductLinksByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from Order jhiOrder where jhiOrder.id in :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Create the missing monthly partitions of {@code jhi_order} up to {@code monthsAhead} months from now.
+     * PostgreSQL only, see the {@code create_jhi_order_partitions} function.
+     *
+     * @return the number of partitions created.
+     */
+    @Query(value = "select create_jhi_order_partitions(cast(now() as timestamp), :monthsAhead)", nativeQuery = true)
+    int createPartitions(@Param("monthsAhead") int monthsAhead);
+}
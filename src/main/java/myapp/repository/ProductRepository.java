@@ -1,7 +1,17 @@
 package myapp.repository;
 
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 import myapp.domain.Product;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +19,99 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {}
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
+    @Query("select product from Product product where product.id > :cursor order by product.id")
+    Slice<Product> findAllAfterId(@Param("cursor") Long cursor, Pageable pageable);
+
+    /**
+     * Read the version of a product from the database, never from the second-level cache.
+     *
+     * @param id the id of the product.
+     * @return the version, or empty if the product does not exist.
+     */
+    @Query("select product.version from Product product where product.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    Slice<Product> findAllBy(Pageable pageable);
+
+    /**
+     * Read all the products in id order, {@code 500} rows per JDBC round trip, bypassing the second-level cache.
+     * The stream must be consumed, and closed, within a transaction.
+     */
+    @Query("select product from Product product order by product.id")
+    @QueryHints(
+        {
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE"),
+        }
+    )
+    Stream<Product> streamAllBy();
+
+    @Query(
+        value = "select distinct product from Product product join product.categories category where category.id in :categoryIds",
+        countQuery = "select count(distinct product) from Product product join product.categories category where category.id in :categoryIds"
+    )
+    Page<Product> findAllByCategoryIdIn(@Param("categoryIds") Collection<Long> categoryIds, Pageable pageable);
+
+    /**
+     * Take {@code quantity} units out of stock if, and only if, that many are available; the product becomes
+     * {@code OUT_OF_STOCK} when its stock reaches zero. Discontinued products cannot be reserved.
+     * <p>
+     * Native so that the statement is scoped to the {@code stock_reservation} query space: a JPQL bulk update would
+     * evict the whole product cache region, callers evict the single updated product instead.
+     *
+     * @return {@code 1} if the stock was taken, {@code 0} otherwise.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(
+        value = "update product set quantity_in_stock = quantity_in_stock - :quantity, version = version + 1, " +
+        "status = case when quantity_in_stock = :quantity then 'OUT_OF_STOCK' else status end " +
+        "where id = :id and status <> 'DISCONTINUED' and quantity_in_stock >= :quantity",
+        nativeQuery = true
+    )
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "stock_reservation"))
+    int decrementStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    /**
+     * Put {@code quantity} units back in stock; an {@code OUT_OF_STOCK} product is back {@code IN_STOCK}.
+     *
+     * @return {@code 1} if the product exists, {@code 0} otherwise.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(
+        value = "update product set quantity_in_stock = quantity_in_stock + :quantity, version = version + 1, " +
+        "status = case when status = 'OUT_OF_STOCK' then 'IN_STOCK' else status end " +
+        "where id = :id",
+        nativeQuery = true
+    )
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "stock_reservation"))
+    int incrementStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    /**
+     * Link products to an order with a single statement, without loading them nor touching their other columns.
+     * <p>
+     * Native and scoped to the {@code jhi_order} query space for the same reason as {@link #decrementStock}: callers
+     * evict the updated products from the second-level cache.
+     *
+     * @return the number of products linked.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "update product set order_id = :orderId, version = version + 1 where id in (:ids)", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "jhi_order"))
+    int linkToOrder(@Param("ids") Collection<Long> ids, @Param("orderId") Long orderId);
+
+    @Query("select product.id from Product product where product.order.id in :orderIds")
+    List<Long> findIdsByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    /**
+     * Unlink the products of orders, the counterpart of {@link #linkToOrder}: callers evict the updated products from
+     * the second-level cache.
+     *
+     * @return the number of products unlinked.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "update product set order_id = null, version = version + 1 where order_id in (:orderIds)", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "jhi_order"))
+    int unlinkFromOrders(@Param("orderIds") Collection<Long> orderIds);
+}
@@ -0,0 +1,44 @@
+package myapp.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import myapp.domain.StockReservation;
+import myapp.domain.enumeration.ReservationStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the StockReservation entity.
+ */
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+    /**
+     * Move a reservation from one status to another, only if it is still in the expected status.
+     *
+     * @return {@code 1} if the transition happened, {@code 0} otherwise.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update StockReservation reservation set reservation.status = :to where reservation.id = :id and reservation.status = :from")
+    int transition(@Param("id") Long id, @Param("from") ReservationStatus from, @Param("to") ReservationStatus to);
+
+    /**
+     * Move reservations from one status to another, skipping those that are not in the expected status any more.
+     *
+     * @return the number of reservations that transitioned.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update StockReservation reservation set reservation.status = :to where reservation.id in :ids and reservation.status = :from")
+    int transitionAll(@Param("ids") Collection<Long> ids, @Param("from") ReservationStatus from, @Param("to") ReservationStatus to);
+
+    @Query(
+        "select reservation.id from StockReservation reservation where reservation.status = :status and reservation.createdDate < :before order by reservation.createdDate"
+    )
+    List<Long> findIdsByStatusAndCreatedDateBefore(
+        @Param("status") ReservationStatus status,
+        @Param("before") Instant before,
+        Pageable pageable
+    );
+}
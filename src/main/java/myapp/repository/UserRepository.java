@@ -4,16 +4,29 @@ import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import myapp.domain.User;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Spring Data JPA repository for the {@link User} entity.
+ * <p>
+ * The cached lookups start read-write transactions, so that they read from the primary rather than from a lagging read
+ * replica. Called within a read-only transaction, which may run on the replica, they read through it and their result
+ * is not cached.
  */
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    String USERS_BY_LOGIN_CACHE = "usersByLogin";
+
+    String USERS_BY_EMAIL_CACHE = "usersByEmail";
+
+    String READ_ONLY_OR_EMPTY =
+        "#result == null || T(org.springframework.transaction.support.TransactionSynchronizationManager).isCurrentTransactionReadOnly()";
+
     Optional<User> findOneByActivationKey(String activationKey);
     List<User> findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(Instant dateTime);
     Optional<User> findOneByResetKey(String resetKey);
@@ -21,9 +34,17 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findOneByLogin(String login);
 
     @EntityGraph(attributePaths = "authorities")
+    @Cacheable(cacheNames = USERS_BY_LOGIN_CACHE, unless = READ_ONLY_OR_EMPTY)
+    @Transactional
     Optional<User> findOneWithAuthoritiesByLogin(String login);
 
+    /**
+     * Cached by the given email: callers pass it in lower case, as it is stored, so that all the spellings of an email
+     * share one cache entry that {@link myapp.service.UserService} can evict.
+     */
     @EntityGraph(attributePaths = "authorities")
+    @Cacheable(cacheNames = USERS_BY_EMAIL_CACHE, unless = READ_ONLY_OR_EMPTY)
+    @Transactional
     Optional<User> findOneWithAuthoritiesByEmailIgnoreCase(String email);
 
     Page<User> findAllByIdNotNullAndActivatedIsTrue(Pageable pageable);
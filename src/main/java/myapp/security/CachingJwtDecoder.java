@@ -0,0 +1,139 @@
+package myapp.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import myapp.management.SecurityMetersService;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+/**
+ * A {@link JwtDecoder} remembering the tokens it has already decoded, so that a token presented again is neither
+ * parsed nor verified again.
+ * <p>
+ * Tokens are keyed by their SHA-256 hash, so that the cache does not hold usable credentials. A decoded token is kept
+ * until it expires, and at most {@code maxTtl}; a malformed token is remembered as such for {@code negativeTtl}. Other
+ * failures, such as an invalid signature or an expired token, are not cached. The cache holds at most {@code maxSize}
+ * entries.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+
+    private final SecurityMetersService metersService;
+
+    private final Clock clock;
+
+    private final Cache<ByteBuffer, Result> cache;
+
+    public CachingJwtDecoder(
+        JwtDecoder delegate,
+        SecurityMetersService metersService,
+        long maxSize,
+        Duration maxTtl,
+        Duration negativeTtl,
+        Clock clock
+    ) {
+        this.delegate = delegate;
+        this.metersService = metersService;
+        this.clock = clock;
+        this.cache = Caffeine.newBuilder().maximumSize(maxSize).expireAfter(new ResultExpiry(maxTtl, negativeTtl, clock)).build();
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        ByteBuffer key = hash(token);
+        Result cached = cache.getIfPresent(key);
+        if (cached != null) {
+            metersService.trackTokenCacheHit();
+            if (cached.error != null) {
+                metersService.trackTokenMalformed();
+                throw cached.error;
+            }
+            return cached.jwt;
+        }
+        metersService.trackTokenCacheMiss();
+        Jwt jwt;
+        try {
+            jwt = delegate.decode(token);
+        } catch (BadJwtException e) {
+            if (JwtErrorClassifier.classify(e) == JwtErrorClassifier.Cause.MALFORMED) {
+                cache.put(key, new Result(null, e));
+            }
+            throw e;
+        }
+        if (jwt.getExpiresAt() == null || jwt.getExpiresAt().isAfter(clock.instant())) {
+            cache.put(key, new Result(jwt, null));
+        }
+        return jwt;
+    }
+
+    private static ByteBuffer hash(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Either a decoded token or the error it was rejected with.
+     */
+    private static final class Result {
+
+        private final Jwt jwt;
+
+        private final BadJwtException error;
+
+        private Result(Jwt jwt, BadJwtException error) {
+            this.jwt = jwt;
+            this.error = error;
+        }
+    }
+
+    private static final class ResultExpiry implements Expiry<ByteBuffer, Result> {
+
+        private final long maxTtlNanos;
+
+        private final long negativeTtlNanos;
+
+        private final Clock clock;
+
+        private ResultExpiry(Duration maxTtl, Duration negativeTtl, Clock clock) {
+            this.maxTtlNanos = maxTtl.toNanos();
+            this.negativeTtlNanos = negativeTtl.toNanos();
+            this.clock = clock;
+        }
+
+        @Override
+        public long expireAfterCreate(ByteBuffer key, Result result, long currentTime) {
+            if (result.error != null) {
+                return negativeTtlNanos;
+            }
+            Instant expiresAt = result.jwt.getExpiresAt();
+            if (expiresAt == null) {
+                return maxTtlNanos;
+            }
+            return Math.max(0, Math.min(maxTtlNanos, Duration.between(clock.instant(), expiresAt).toNanos()));
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, Result result, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, result, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, Result result, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
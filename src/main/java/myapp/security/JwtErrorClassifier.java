@@ -0,0 +1,85 @@
+package myapp.security;
+
+import com.nimbusds.jose.proc.BadJOSEException;
+import com.nimbusds.jose.proc.BadJWSException;
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Instant;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+
+/**
+ * Utility class classifying the failures of a {@link org.springframework.security.oauth2.jwt.NimbusJwtDecoder} by the
+ * type of the exceptions thrown, rather than by their message.
+ * <p>
+ * Expired tokens are rejected by Spring's validators rather than by Nimbus, with no exception type of their own: the
+ * decoder must validate tokens with {@link #timestampValidator(Clock)} for them to be recognized.
+ */
+public final class JwtErrorClassifier {
+
+    /**
+     * Why a token was rejected.
+     */
+    public enum Cause {
+        INVALID_SIGNATURE,
+        EXPIRED,
+        MALFORMED,
+        UNSUPPORTED,
+        UNKNOWN,
+    }
+
+    private static final OAuth2Error EXPIRED_ERROR = new OAuth2Error(OAuth2ErrorCodes.INVALID_TOKEN, "Jwt expired", null);
+
+    private JwtErrorClassifier() {}
+
+    /**
+     * Validate the expiry and not-before claims of a token, with the default clock skew of {@link JwtTimestampValidator},
+     * reporting expired tokens in a way {@link #classify(JwtException)} recognizes.
+     *
+     * @param clock the clock to validate the token against.
+     * @return the validator.
+     */
+    public static OAuth2TokenValidator<Jwt> timestampValidator(Clock clock) {
+        JwtTimestampValidator delegate = new JwtTimestampValidator();
+        delegate.setClock(clock);
+        return jwt -> {
+            OAuth2TokenValidatorResult result = delegate.validate(jwt);
+            Instant expiresAt = jwt.getExpiresAt();
+            if (result.hasErrors() && expiresAt != null && expiresAt.isBefore(clock.instant())) {
+                return OAuth2TokenValidatorResult.failure(EXPIRED_ERROR);
+            }
+            return result;
+        };
+    }
+
+    /**
+     * Classify a failure to decode a token.
+     *
+     * @param e the exception thrown by the decoder.
+     * @return why the token was rejected.
+     */
+    public static Cause classify(JwtException e) {
+        if (e instanceof JwtValidationException validationException) {
+            return validationException.getErrors().contains(EXPIRED_ERROR) ? Cause.EXPIRED : Cause.UNKNOWN;
+        }
+        Throwable cause = e.getCause();
+        if (cause instanceof BadJWSException) {
+            return Cause.INVALID_SIGNATURE;
+        }
+        if (cause instanceof ParseException || (cause != null && cause.getCause() instanceof ParseException)) {
+            return Cause.MALFORMED;
+        }
+        if (cause instanceof BadJOSEException || (cause == null && e instanceof BadJwtException)) {
+            // unexpected algorithms, and unsecured tokens which the decoder rejects itself
+            return Cause.UNSUPPORTED;
+        }
+        return Cause.UNKNOWN;
+    }
+}
@@ -1,8 +1,11 @@
 package myapp.service;
 
+import java.util.Arrays;
 import java.util.Optional;
 import myapp.domain.Category;
+import myapp.domain.Product;
 import myapp.repository.CategoryRepository;
+import myapp.repository.ProductRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -21,8 +24,14 @@ public class CategoryService {
 
     private final CategoryRepository categoryRepository;
 
-    public CategoryService(CategoryRepository categoryRepository) {
+    private final ProductRepository productRepository;
+
+    private final CategoryTreeCache categoryTreeCache;
+
+    public CategoryService(CategoryRepository categoryRepository, ProductRepository productRepository, CategoryTreeCache categoryTreeCache) {
         this.categoryRepository = categoryRepository;
+        this.productRepository = productRepository;
+        this.categoryTreeCache = categoryTreeCache;
     }
 
     /**
@@ -33,18 +42,28 @@ public class CategoryService {
      */
     public Category save(Category category) {
         LOG.debug("Request to save Category : {}", category);
-        return categoryRepository.save(category);
+        Category result = categoryRepository.save(category);
+        categoryTreeCache.invalidateAfterCommit();
+        return result;
     }
 
     /**
      * Update a category.
+     * <p>
+     * The version is not part of the request: the category is saved with the version the update was checked against,
+     * see {@link #findCurrentContentVersion(Long)}, so that it fails with an optimistic locking failure if another
+     * update has been committed since.
      *
      * @param category the entity to save.
+     * @param version the version of the stored category the update was checked against.
      * @return the persisted entity.
      */
-    public Category update(Category category) {
-        LOG.debug("Request to update Category : {}", category);
-        return categoryRepository.save(category);
+    public Category update(Category category, long version) {
+        LOG.debug("Request to update Category : {}, version {}", category, version);
+        category.setVersion(version);
+        Category result = categoryRepository.save(category);
+        categoryTreeCache.invalidateAfterCommit();
+        return result;
     }
 
     /**
@@ -97,6 +116,7 @@ public class CategoryService {
      *
      * @return the list of entities.
      */
+    @Transactional(readOnly = true)
     public Page<Category> findAllWithEagerRelationships(Pageable pageable) {
         return categoryRepository.findAllWithEagerRelationships(pageable);
     }
@@ -113,6 +133,49 @@ public class CategoryService {
         return categoryRepository.findOneWithEagerRelationships(id);
     }
 
+    /**
+     * Get what the representation of a category depends on, without loading it.
+     *
+     * @param id the id of the entity.
+     * @return the versions of the category and of its products.
+     */
+    @Transactional(readOnly = true)
+    public Optional<CategoryRepository.ContentVersion> findContentVersion(Long id) {
+        LOG.debug("Request to get the version of Category : {}", id);
+        return categoryRepository.findContentVersionById(id);
+    }
+
+    /**
+     * Get what the representation of a category depends on, as {@link #findContentVersion(Long)}, to check an update
+     * against.
+     * <p>
+     * Not read-only, so that it is read on the primary: a lagging read replica would fail the update.
+     *
+     * @param id the id of the entity.
+     * @return the versions of the category and of its products.
+     */
+    public Optional<CategoryRepository.ContentVersion> findCurrentContentVersion(Long id) {
+        LOG.debug("Request to get the current version of Category : {}", id);
+        return categoryRepository.findContentVersionById(id);
+    }
+
+    /**
+     * Get the products of a category and of all its descendants.
+     *
+     * @param id the id of the category.
+     * @param pageable the pagination information.
+     * @return the page of products, or empty if the category does not exist.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Page<Product>> findSubtreeProducts(Long id, Pageable pageable) {
+        LOG.debug("Request to get the Products under Category : {}", id);
+        long[] subtree = categoryTreeCache.subtreeOf(id);
+        if (subtree.length == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(productRepository.findAllByCategoryIdIn(Arrays.stream(subtree).boxed().toList(), pageable));
+    }
+
     /**
      * Delete the category by id.
      *
@@ -121,5 +184,6 @@ public class CategoryService {
     public void delete(Long id) {
         LOG.debug("Request to delete Category : {}", id);
         categoryRepository.deleteById(id);
+        categoryTreeCache.invalidateAfterCommit();
     }
 }
@@ -0,0 +1,287 @@
+package myapp.service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import myapp.repository.CategoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * In-memory copy of the {@link myapp.domain.Category} hierarchy.
+ * <p>
+ * The whole tree is held in an immutable, array-backed {@link Tree}: nodes are numbered in pre-order and every node
+ * records the (exclusive) pre-order number at which its subtree ends. The descendants of a node are therefore a
+ * contiguous slice of the pre-order array, "is A an ancestor of B" is two integer comparisons, and the ancestors of a
+ * node, for breadcrumbs, are read by following parent pointers within the arrays.
+ * <p>
+ * The tree is loaded lazily, and invalidated by {@link CategoryService} after every committed write that can change
+ * the hierarchy: the next reader reloads it. It is also reloaded every {@code refresh-interval}, to bring in the writes
+ * of the other instances and those not made through the service. Readers always see either the old or the new tree,
+ * never a partially built one.
+ */
+@Component
+public class CategoryTreeCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CategoryTreeCache.class);
+
+    private final CategoryRepository categoryRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Number of committed writes to the hierarchy.
+     */
+    private final AtomicLong writes = new AtomicLong();
+
+    private volatile Snapshot snapshot;
+
+    public CategoryTreeCache(CategoryRepository categoryRepository, PlatformTransactionManager transactionManager) {
+        this.categoryRepository = categoryRepository;
+        // loaded in a read-write transaction of its own, on the primary: a lagging read replica could miss the write
+        // which invalidated the tree, and it would then be kept until the next one
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * @param id the id of a category.
+     * @return {@code true} if the category is part of the tree.
+     */
+    public boolean contains(long id) {
+        return get().position(id) >= 0;
+    }
+
+    /**
+     * @param ancestorId the id of the candidate ancestor.
+     * @param descendantId the id of the candidate descendant.
+     * @return {@code true} if {@code ancestorId} is a strict ancestor of {@code descendantId}.
+     */
+    public boolean isAncestor(long ancestorId, long descendantId) {
+        return get().isAncestor(ancestorId, descendantId);
+    }
+
+    /**
+     * @param id the id of a category.
+     * @return the ids of the ancestors of the category, root first, or an empty array if the category is unknown.
+     */
+    public long[] ancestorsOf(long id) {
+        return get().ancestorsOf(id);
+    }
+
+    /**
+     * @param id the id of a category.
+     * @return the ids of the category and of all its descendants, or an empty array if the category is unknown.
+     */
+    public long[] subtreeOf(long id) {
+        return get().subtreeOf(id);
+    }
+
+    /**
+     * Invalidate the tree once the current transaction commits, so that the next reader reloads it.
+     * <p>
+     * The tree is not reloaded right away: once committed, the transaction can no longer run queries.
+     */
+    public void invalidateAfterCommit() {
+        AfterCommit.run(writes::incrementAndGet);
+    }
+
+    /**
+     * Reload the tree, once it has been loaded, so that it catches up with the writes it was not told about.
+     */
+    @Scheduled(
+        initialDelayString = "${application.category-tree.refresh-interval:PT10M}",
+        fixedDelayString = "${application.category-tree.refresh-interval:PT10M}"
+    )
+    public synchronized void refresh() {
+        if (snapshot != null) {
+            snapshot = load();
+        }
+    }
+
+    private Tree get() {
+        Snapshot current = snapshot;
+        if (current == null || current.writes() != writes.get()) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null || current.writes() != writes.get()) {
+                    current = load();
+                    snapshot = current;
+                }
+            }
+        }
+        return current.tree();
+    }
+
+    private Snapshot load() {
+        // counted before loading: a write committed during the load invalidates what it loads
+        long loadedWrites = writes.get();
+        List<Object[]> rows = transactionTemplate.execute(status -> categoryRepository.findAllIdAndParentId());
+        long[] ids = new long[rows.size()];
+        long[] parentIds = new long[rows.size()];
+        for (int i = 0; i < ids.length; i++) {
+            Object[] row = rows.get(i);
+            ids[i] = (Long) row[0];
+            parentIds[i] = row[1] == null ? Tree.NO_PARENT : (Long) row[1];
+        }
+        LOG.debug("Built category tree with {} nodes", ids.length);
+        return new Snapshot(Tree.build(ids, parentIds), loadedWrites);
+    }
+
+    /**
+     * A tree, and the number of committed writes it reflects.
+     */
+    private record Snapshot(Tree tree, long writes) {}
+
+    /**
+     * Immutable, array-backed tree. Node {@code n} is the n-th node visited in pre-order.
+     */
+    static final class Tree {
+
+        static final long NO_PARENT = Long.MIN_VALUE;
+
+        /** Category ids in ascending order, for the id lookup. */
+        private final long[] sortedIds;
+
+        /** Pre-order number of the category at the same index in {@link #sortedIds}. */
+        private final int[] positionOfSorted;
+
+        /** Category id of each node. */
+        private final long[] preorderIds;
+
+        /** Parent node of each node, {@code -1} for the roots. */
+        private final int[] parent;
+
+        /** Exclusive end of the pre-order interval covered by the subtree of each node. */
+        private final int[] subtreeEnd;
+
+        private Tree(long[] sortedIds, int[] positionOfSorted, long[] preorderIds, int[] parent, int[] subtreeEnd) {
+            this.sortedIds = sortedIds;
+            this.positionOfSorted = positionOfSorted;
+            this.preorderIds = preorderIds;
+            this.parent = parent;
+            this.subtreeEnd = subtreeEnd;
+        }
+
+        int position(long id) {
+            int index = Arrays.binarySearch(sortedIds, id);
+            return index < 0 ? -1 : positionOfSorted[index];
+        }
+
+        /**
+         * @return {@code true} if the pre-order interval of {@code ancestorId} strictly contains {@code descendantId}.
+         */
+        boolean isAncestor(long ancestorId, long descendantId) {
+            int ancestor = position(ancestorId);
+            int descendant = position(descendantId);
+            return ancestor >= 0 && descendant >= 0 && ancestor < descendant && descendant < subtreeEnd[ancestor];
+        }
+
+        /**
+         * @return the ids of the ancestors of the category, root first, or an empty array if it is unknown.
+         */
+        long[] ancestorsOf(long id) {
+            int position = position(id);
+            if (position < 0) {
+                return new long[0];
+            }
+            int depth = 0;
+            for (int node = parent[position]; node >= 0; node = parent[node]) {
+                depth++;
+            }
+            long[] ancestors = new long[depth];
+            for (int node = parent[position]; node >= 0; node = parent[node]) {
+                ancestors[--depth] = preorderIds[node];
+            }
+            return ancestors;
+        }
+
+        /**
+         * @return the ids of the category and of all its descendants in pre-order, or an empty array if it is unknown.
+         */
+        long[] subtreeOf(long id) {
+            int position = position(id);
+            if (position < 0) {
+                return new long[0];
+            }
+            return Arrays.copyOfRange(preorderIds, position, subtreeEnd[position]);
+        }
+
+        /**
+         * @param ids the category ids, in ascending order.
+         * @param parentIds the parent id of each category, or {@link #NO_PARENT}.
+         */
+        static Tree build(long[] ids, long[] parentIds) {
+            int size = ids.length;
+            int[] parentOfSorted = new int[size];
+            int[] childCount = new int[size + 1];
+            for (int i = 0; i < size; i++) {
+                int parentIndex = parentIds[i] == NO_PARENT ? -1 : Arrays.binarySearch(ids, parentIds[i]);
+                parentOfSorted[i] = parentIndex < 0 || parentIndex == i ? -1 : parentIndex;
+                if (parentOfSorted[i] >= 0) {
+                    childCount[parentOfSorted[i] + 1]++;
+                }
+            }
+            // children of node i are children[childStart[i] .. childStart[i + 1])
+            int[] childStart = childCount;
+            for (int i = 0; i < size; i++) {
+                childStart[i + 1] += childStart[i];
+            }
+            int[] children = new int[size];
+            int[] filled = Arrays.copyOf(childStart, size);
+            for (int i = 0; i < size; i++) {
+                if (parentOfSorted[i] >= 0) {
+                    children[filled[parentOfSorted[i]]++] = i;
+                }
+            }
+
+            int[] positionOfSorted = new int[size];
+            Arrays.fill(positionOfSorted, -1);
+            long[] preorderIds = new long[size];
+            int[] parent = new int[size];
+            int[] subtreeEnd = new int[size];
+            int[] stack = new int[size];
+            int[] nextChild = new int[size];
+            int counter = 0;
+            // roots first; nodes still unvisited afterwards sit on a parent cycle and are treated as roots
+            for (int pass = 0; pass < 2; pass++) {
+                for (int root = 0; root < size; root++) {
+                    if (positionOfSorted[root] >= 0 || (pass == 0 && parentOfSorted[root] >= 0)) {
+                        continue;
+                    }
+                    int top = 0;
+                    stack[0] = root;
+                    nextChild[root] = childStart[root];
+                    positionOfSorted[root] = counter;
+                    preorderIds[counter] = ids[root];
+                    parent[counter] = -1;
+                    counter++;
+                    while (top >= 0) {
+                        int node = stack[top];
+                        if (nextChild[node] < childStart[node + 1]) {
+                            int child = children[nextChild[node]++];
+                            if (positionOfSorted[child] >= 0) {
+                                continue;
+                            }
+                            positionOfSorted[child] = counter;
+                            preorderIds[counter] = ids[child];
+                            parent[counter] = positionOfSorted[node];
+                            counter++;
+                            nextChild[child] = childStart[child];
+                            stack[++top] = child;
+                        } else {
+                            subtreeEnd[positionOfSorted[node]] = counter;
+                            top--;
+                        }
+                    }
+                }
+            }
+            return new Tree(ids, positionOfSorted, preorderIds, parent, subtreeEnd);
+        }
+    }
+}
@@ -6,7 +6,9 @@ import myapp.repository.CustomerRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -89,6 +91,31 @@ public class CustomerService {
         return customerRepository.findAll(pageable);
     }
 
+    /**
+     * Get all the customers without counting them.
+     *
+     * @param pageable the pagination information.
+     * @return the slice of entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<Customer> findSlice(Pageable pageable) {
+        LOG.debug("Request to get a slice of Customers");
+        return customerRepository.findAllBy(pageable);
+    }
+
+    /**
+     * Get the customers following the given id, in id order, without counting them.
+     *
+     * @param cursor the id of the last customer already read.
+     * @param size the maximum number of customers to return.
+     * @return the slice of entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<Customer> findAllAfter(Long cursor, int size) {
+        LOG.debug("Request to get Customers after : {}", cursor);
+        return customerRepository.findAllAfterId(cursor, PageRequest.of(0, size));
+    }
+
     /**
      * Get one customer by id.
      *
@@ -0,0 +1,20 @@
+package myapp.service;
+
+/**
+ * Thrown when a product does not have enough stock left for a reservation.
+ */
+public class InsufficientStockException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long productId;
+
+    public InsufficientStockException(Long productId, int quantity) {
+        super("Insufficient stock to reserve " + quantity + " of product " + productId);
+        this.productId = productId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+}
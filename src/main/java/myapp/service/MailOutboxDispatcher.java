@@ -0,0 +1,229 @@
+package myapp.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import myapp.config.ApplicationProperties;
+import myapp.domain.MailOutboxMessage;
+import myapp.domain.enumeration.MailOutboxStatus;
+import myapp.repository.MailOutboxMessageRepository;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Service sending the emails queued in the {@link MailOutboxMessage mail outbox}.
+ * <p>
+ * Due messages are claimed by batches: they are locked, skipping those claimed by another instance, and leased for
+ * {@code lease} so that no other poll picks them up while they are being sent. Each batch is sent over a single SMTP
+ * connection, outside of any transaction. Sent messages are then deleted; the others are retried with an exponential
+ * backoff, and kept as failed after {@code max-attempts} attempts. A message whose outcome could not be recorded, for
+ * instance because the application stopped, is sent again once its lease ends: messages are sent at least once.
+ * <p>
+ * Sent and failed messages are counted in {@value #METER_PREFIX}{@code .messages}, tagged by outcome. The time between
+ * the queueing and the sending of messages is recorded in {@value #METER_PREFIX}{@code .lag}, and the number and age
+ * of the pending messages are exposed as gauges.
+ */
+@Service
+public class MailOutboxDispatcher {
+
+    public static final String METER_PREFIX = "app.mail.outbox";
+
+    private static final Logger LOG = LoggerFactory.getLogger(MailOutboxDispatcher.class);
+
+    private static final int MAX_ERROR_LENGTH = 1024;
+
+    private final MailOutboxMessageRepository mailOutboxMessageRepository;
+
+    private final JavaMailSender javaMailSender;
+
+    private final JHipsterProperties jHipsterProperties;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter sentCounter;
+
+    private final Counter retriedCounter;
+
+    private final Counter failedCounter;
+
+    private final Timer lagTimer;
+
+    private final AtomicLong pendingCount = new AtomicLong();
+
+    private final AtomicReference<Instant> oldestPendingDate = new AtomicReference<>();
+
+    public MailOutboxDispatcher(
+        MailOutboxMessageRepository mailOutboxMessageRepository,
+        JavaMailSender javaMailSender,
+        JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry
+    ) {
+        this.mailOutboxMessageRepository = mailOutboxMessageRepository;
+        this.javaMailSender = javaMailSender;
+        this.jHipsterProperties = jHipsterProperties;
+        this.applicationProperties = applicationProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sentCounter = messagesCounter("sent", meterRegistry);
+        this.retriedCounter = messagesCounter("retried", meterRegistry);
+        this.failedCounter = messagesCounter("failed", meterRegistry);
+        this.lagTimer = Timer.builder(METER_PREFIX + ".lag")
+            .description("Time between the queueing and the sending of an email")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        Gauge.builder(METER_PREFIX + ".pending", pendingCount, AtomicLong::get)
+            .description("Number of emails waiting to be sent")
+            .register(meterRegistry);
+        Gauge.builder(METER_PREFIX + ".oldest", this, MailOutboxDispatcher::oldestPendingAgeSeconds)
+            .description("Age of the oldest email waiting to be sent")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+    }
+
+    private static Counter messagesCounter(String outcome, MeterRegistry meterRegistry) {
+        return Counter.builder(METER_PREFIX + ".messages")
+            .description("Number of emails sent, or failed to be sent")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Send the due messages, batch after batch, until there are none left.
+     */
+    @Scheduled(fixedDelayString = "${application.mail-outbox.poll-interval:PT5S}")
+    public void dispatch() {
+        int batchSize = applicationProperties.getMailOutbox().getBatchSize();
+        List<MailOutboxMessage> batch;
+        do {
+            batch = transactionTemplate.execute(status -> claim(batchSize));
+            if (!batch.isEmpty()) {
+                send(batch);
+            }
+            // refreshed after every batch, so that the gauges follow a long drain
+            refreshPendingGauges();
+        } while (batch.size() == batchSize);
+    }
+
+    private void refreshPendingGauges() {
+        pendingCount.set(mailOutboxMessageRepository.countByStatus(MailOutboxStatus.PENDING));
+        oldestPendingDate.set(mailOutboxMessageRepository.findOldestCreatedDateByStatus(MailOutboxStatus.PENDING));
+    }
+
+    private List<MailOutboxMessage> claim(int batchSize) {
+        Instant now = Instant.now();
+        List<MailOutboxMessage> batch = mailOutboxMessageRepository.findDueForUpdate(
+            MailOutboxStatus.PENDING,
+            now,
+            PageRequest.of(0, batchSize)
+        );
+        Instant leaseEnd = now.plus(applicationProperties.getMailOutbox().getLease());
+        batch.forEach(message -> message.attempts(message.getAttempts() + 1).nextAttemptDate(leaseEnd));
+        return batch;
+    }
+
+    private void send(List<MailOutboxMessage> batch) {
+        Map<MimeMessage, MailOutboxMessage> messages = new IdentityHashMap<>(batch.size());
+        Map<MailOutboxMessage, Exception> failures = new IdentityHashMap<>();
+        for (MailOutboxMessage message : batch) {
+            try {
+                messages.put(toMimeMessage(message), message);
+            } catch (MessagingException e) {
+                failures.put(message, e);
+            }
+        }
+        if (!messages.isEmpty()) {
+            try {
+                // all the messages of one call are sent over the same connection
+                javaMailSender.send(messages.keySet().toArray(MimeMessage[]::new));
+            } catch (MailSendException e) {
+                if (e.getFailedMessages().isEmpty()) {
+                    messages.values().forEach(message -> failures.put(message, e));
+                } else {
+                    e.getFailedMessages().forEach((mimeMessage, cause) -> failures.put(messages.get(mimeMessage), cause));
+                }
+            } catch (MailException e) {
+                messages.values().forEach(message -> failures.put(message, e));
+            }
+        }
+
+        Instant now = Instant.now();
+        List<Long> sentIds = new ArrayList<>(batch.size());
+        for (MailOutboxMessage message : batch) {
+            Exception failure = failures.get(message);
+            if (failure == null) {
+                sentIds.add(message.getId());
+                lagTimer.record(Duration.between(message.getCreatedDate(), now));
+                LOG.debug("Sent email {} to '{}'", message.getId(), message.getRecipient());
+            } else {
+                reschedule(message, failure, now);
+            }
+        }
+        sentCounter.increment(sentIds.size());
+        transactionTemplate.executeWithoutResult(status -> {
+            mailOutboxMessageRepository.deleteAllByIdInBatch(sentIds);
+            mailOutboxMessageRepository.saveAll(failures.keySet());
+        });
+    }
+
+    private void reschedule(MailOutboxMessage message, Exception failure, Instant now) {
+        ApplicationProperties.MailOutbox mailOutbox = applicationProperties.getMailOutbox();
+        message.lastError(StringUtils.abbreviate(failure.toString(), MAX_ERROR_LENGTH));
+        if (message.getAttempts() >= mailOutbox.getMaxAttempts()) {
+            LOG.warn(
+                "Email {} could not be sent to '{}', giving up after {} attempts",
+                message.getId(),
+                message.getRecipient(),
+                message.getAttempts(),
+                failure
+            );
+            message.status(MailOutboxStatus.FAILED);
+            failedCounter.increment();
+        } else {
+            LOG.debug("Email {} could not be sent to '{}', will retry", message.getId(), message.getRecipient(), failure);
+            Duration backoff = mailOutbox.getInitialBackoff().multipliedBy(1L << Math.min(message.getAttempts() - 1, 20));
+            message.nextAttemptDate(now.plus(backoff.compareTo(mailOutbox.getMaxBackoff()) > 0 ? mailOutbox.getMaxBackoff() : backoff));
+            retriedCounter.increment();
+        }
+    }
+
+    private MimeMessage toMimeMessage(MailOutboxMessage message) throws MessagingException {
+        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, message.getMultipart(), StandardCharsets.UTF_8.name());
+        helper.setTo(message.getRecipient());
+        helper.setFrom(jHipsterProperties.getMail().getFrom());
+        helper.setSubject(message.getSubject());
+        helper.setText(message.getContent(), message.getHtml());
+        return mimeMessage;
+    }
+
+    private double oldestPendingAgeSeconds() {
+        Instant oldest = oldestPendingDate.get();
+        return oldest == null ? 0 : Duration.between(oldest, Instant.now()).toMillis() / 1000.0;
+    }
+}
@@ -0,0 +1,240 @@
+package myapp.service;
+
+import java.io.Writer;
+import java.text.MessageFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.springframework.boot.autoconfigure.thymeleaf.ThymeleafProperties;
+import org.springframework.context.MessageSource;
+import org.springframework.context.NoSuchMessageException;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.context.ITemplateContext;
+import org.thymeleaf.messageresolver.IMessageResolver;
+import org.thymeleaf.messageresolver.StandardMessageResolver;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+/**
+ * Component rendering the {@code templates/mail/*.html} templates.
+ * <p>
+ * Mails are rendered by a template engine of their own, which keeps every template parsed, with its Spring EL
+ * expressions compiled, once it has been rendered. Locales are resolved once per {@code langKey}, and messages once per
+ * locale: rendering a mail does not go through the {@link MessageSource} fallbacks any more. Each mail is rendered into
+ * an unsynchronized buffer sized for a typical mail: mails are sent from virtual threads, which a buffer per thread would
+ * not outlive.
+ * <p>
+ * When {@code spring.thymeleaf.cache} is disabled, as in development, templates and messages are read again on each
+ * rendering.
+ */
+@Component
+public class MailTemplateRenderer {
+
+    private static final String TEMPLATE_PREFIX = "templates/";
+
+    private static final String TEMPLATE_SUFFIX = ".html";
+
+    /**
+     * Initial capacity of the rendering buffer, above the size of the rendered templates.
+     */
+    private static final int BUFFER_CAPACITY = 2 * 1024;
+
+    private final MessageSource messageSource;
+
+    private final boolean cacheable;
+
+    private final SpringTemplateEngine templateEngine;
+
+    private final ConcurrentMap<String, Locale> locales = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Locale, ConcurrentMap<String, Message>> messages = new ConcurrentHashMap<>();
+
+    public MailTemplateRenderer(MessageSource messageSource, ThymeleafProperties thymeleafProperties) {
+        this.messageSource = messageSource;
+        this.cacheable = thymeleafProperties.isCache();
+
+        ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
+        templateResolver.setPrefix(TEMPLATE_PREFIX);
+        templateResolver.setSuffix(TEMPLATE_SUFFIX);
+        templateResolver.setTemplateMode(TemplateMode.HTML);
+        templateResolver.setCharacterEncoding(thymeleafProperties.getEncoding().name());
+        templateResolver.setCacheable(cacheable);
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+        templateEngine.setMessageResolver(new CachingMessageResolver());
+        templateEngine.setEnableSpringELCompiler(true);
+    }
+
+    /**
+     * Render a template.
+     *
+     * @param templateName the name of the template, such as {@code mail/activationEmail}.
+     * @param langKey the language to render the template in.
+     * @param variables the variables of the template.
+     * @return the rendered template.
+     */
+    public String render(String templateName, String langKey, Map<String, Object> variables) {
+        Context context = new Context(locale(langKey), variables);
+        StringBuilderWriter buffer = new StringBuilderWriter(BUFFER_CAPACITY);
+        templateEngine.process(templateName, context, buffer);
+        return buffer.toString();
+    }
+
+    /**
+     * Resolve a message with no parameters.
+     *
+     * @param key the key of the message.
+     * @param langKey the language of the message.
+     * @return the message.
+     * @throws NoSuchMessageException if the message does not exist.
+     */
+    public String message(String key, String langKey) {
+        Locale locale = locale(langKey);
+        Message message = resolve(key, locale);
+        if (message == null) {
+            throw new NoSuchMessageException(key, locale);
+        }
+        return message.text;
+    }
+
+    private Locale locale(String langKey) {
+        return locales.computeIfAbsent(langKey, Locale::forLanguageTag);
+    }
+
+    /**
+     * @return the message, or {@code null} if it does not exist.
+     */
+    private Message resolve(String key, Locale locale) {
+        if (!cacheable) {
+            return loadMessage(key, locale);
+        }
+        ConcurrentMap<String, Message> localeMessages = messages.computeIfAbsent(locale, l -> new ConcurrentHashMap<>());
+        Message message = localeMessages.get(key);
+        if (message == null) {
+            message = loadMessage(key, locale);
+            if (message != null) {
+                localeMessages.putIfAbsent(key, message);
+            }
+        }
+        return message;
+    }
+
+    private Message loadMessage(String key, Locale locale) {
+        try {
+            // without arguments, the message source returns the message as is, not formatted
+            return new Message(messageSource.getMessage(key, null, locale), locale);
+        } catch (NoSuchMessageException e) {
+            return null;
+        }
+    }
+
+    /**
+     * A message, and the format to apply its parameters, parsed on first use.
+     */
+    private static final class Message {
+
+        private final String text;
+
+        private final Locale locale;
+
+        private MessageFormat format;
+
+        private Message(String text, Locale locale) {
+            this.text = text;
+            this.locale = locale;
+        }
+
+        // MessageFormat is not thread-safe
+        private synchronized String format(Object[] parameters) {
+            if (format == null) {
+                format = new MessageFormat(text, locale);
+            }
+            return format.format(parameters);
+        }
+    }
+
+    /**
+     * Resolves {@code #{...}} expressions from the cached messages.
+     */
+    private final class CachingMessageResolver implements IMessageResolver {
+
+        private final StandardMessageResolver absentMessageResolver = new StandardMessageResolver();
+
+        @Override
+        public String getName() {
+            return getClass().getSimpleName();
+        }
+
+        @Override
+        public Integer getOrder() {
+            return 0;
+        }
+
+        @Override
+        public String resolveMessage(ITemplateContext context, Class<?> origin, String key, Object[] messageParameters) {
+            Message message = resolve(key, context.getLocale());
+            if (message == null) {
+                return null;
+            }
+            if (messageParameters == null || messageParameters.length == 0) {
+                return message.text;
+            }
+            return message.format(messageParameters);
+        }
+
+        @Override
+        public String createAbsentMessageRepresentation(
+            ITemplateContext context,
+            Class<?> origin,
+            String key,
+            Object[] messageParameters
+        ) {
+            return absentMessageResolver.createAbsentMessageRepresentation(context, origin, key, messageParameters);
+        }
+    }
+
+    /**
+     * An unsynchronized {@link Writer} over a {@link StringBuilder}.
+     */
+    private static final class StringBuilderWriter extends Writer {
+
+        private final StringBuilder builder;
+
+        private StringBuilderWriter(int capacity) {
+            builder = new StringBuilder(capacity);
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            builder.append(cbuf, off, len);
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            builder.append(str, off, off + len);
+        }
+
+        @Override
+        public void write(int c) {
+            builder.append((char) c);
+        }
+
+        @Override
+        public void flush() {
+            // nothing to flush
+        }
+
+        @Override
+        public void close() {
+            // nothing to close
+        }
+
+        @Override
+        public String toString() {
+            return builder.toString();
+        }
+    }
+}
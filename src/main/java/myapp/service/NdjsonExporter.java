@@ -0,0 +1,63 @@
+package myapp.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes a stream of entities as newline-delimited JSON, one entity per line.
+ * <p>
+ * The persistence context is cleared after every {@value #CLEAR_INTERVAL} entities, the fetch size of the export
+ * queries, so that an export holds at most one JDBC fetch batch on the heap, whatever the number of rows. Lazy associations are not loaded: the
+ * {@link com.fasterxml.jackson.datatype.hibernate6.Hibernate6Module} writes their identifier only.
+ */
+@Component
+public class NdjsonExporter {
+
+    static final int CLEAR_INTERVAL = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ObjectWriter writer;
+
+    public NdjsonExporter(ObjectMapper objectMapper) {
+        // one value per line whatever the indentation of the shared mapper, separated by the newline written after
+        // each value rather than by Jackson's root value separator
+        this.writer = objectMapper
+            .writer()
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+            .without(SerializationFeature.INDENT_OUTPUT)
+            .withRootValueSeparator((String) null);
+    }
+
+    /**
+     * Write the entities; must be called within the transaction the stream was opened in.
+     *
+     * @param entities the entities to write.
+     * @param out the target, left open.
+     * @return the number of entities written.
+     * @throws IOException if the target cannot be written.
+     */
+    public long write(Stream<?> entities, OutputStream out) throws IOException {
+        long count = 0;
+        try (JsonGenerator generator = writer.createGenerator(out).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            for (Iterator<?> it = entities.iterator(); it.hasNext();) {
+                writer.writeValue(generator, it.next());
+                generator.writeRaw('\n');
+                if (++count % CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,144 @@
+package myapp.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import java.sql.DatabaseMetaData;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import javax.sql.DataSource;
+import myapp.config.ApplicationProperties;
+import myapp.domain.Order;
+import myapp.domain.Product;
+import myapp.repository.OrderRepository;
+import myapp.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service moving the orders shipped long ago out of {@code jhi_order}.
+ * <p>
+ * Every day, the orders shipped more than {@code archive-after-months} months ago are copied to
+ * {@code jhi_order_archive}, with the links to their products to {@code rel_order_archive__product}, then deleted.
+ * They are archived by batches, each in its own transaction: the orders of a batch are locked, skipping those locked by
+ * another instance, so that instances can run concurrently. Archived orders are counted in
+ * {@value #METER_PREFIX}{@code .archived}.
+ * <p>
+ * On PostgreSQL, where {@code jhi_order} is partitioned by month, the monthly partitions of the coming
+ * {@code partitions-ahead} months are created beforehand.
+ */
+@Service
+public class OrderArchivalService {
+
+    public static final String METER_PREFIX = "app.orders";
+
+    private static final Logger LOG = LoggerFactory.getLogger(OrderArchivalService.class);
+
+    private static final String POSTGRESQL = "PostgreSQL";
+
+    private final OrderRepository orderRepository;
+
+    private final ProductRepository productRepository;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final DataSource dataSource;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter archivedCounter;
+
+    public OrderArchivalService(
+        OrderRepository orderRepository,
+        ProductRepository productRepository,
+        EntityManagerFactory entityManagerFactory,
+        ApplicationProperties applicationProperties,
+        DataSource dataSource,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry
+    ) {
+        this.orderRepository = orderRepository;
+        this.productRepository = productRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.applicationProperties = applicationProperties;
+        this.dataSource = dataSource;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archivedCounter = Counter.builder(METER_PREFIX + ".archived")
+            .description("Number of orders moved to the archive")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Create the coming partitions, then archive the orders shipped before the cutoff, batch after batch, until there
+     * are none left.
+     */
+    @Scheduled(cron = "${application.order-storage.archival-cron:0 30 3 * * ?}")
+    public void archive() {
+        ApplicationProperties.OrderStorage orderStorage = applicationProperties.getOrderStorage();
+        if (isPostgreSql()) {
+            createPartitions(orderStorage.getPartitionsAhead());
+        }
+
+        Instant shippedBefore = ZonedDateTime.now(ZoneOffset.UTC).minusMonths(orderStorage.getArchiveAfterMonths()).toInstant();
+        int batchSize = orderStorage.getArchivalBatchSize();
+        long total = 0;
+        int archived;
+        do {
+            archived = transactionTemplate.execute(status -> archiveBatch(shippedBefore, batchSize));
+            archivedCounter.increment(archived);
+            total += archived;
+        } while (archived == batchSize);
+        LOG.info("Archived {} orders shipped before {}", total, shippedBefore);
+    }
+
+    private void createPartitions(int monthsAhead) {
+        try {
+            Integer created = transactionTemplate.execute(status -> orderRepository.createPartitions(monthsAhead));
+            LOG.debug("Created {} order partitions", created);
+        } catch (DataAccessException e) {
+            // the orders of months without partition go to the default one meanwhile, the archival must not wait for it
+            LOG.warn("Could not create the order partitions, archiving anyway", e);
+        }
+    }
+
+    private int archiveBatch(Instant shippedBefore, int batchSize) {
+        List<Long> orderIds = orderRepository
+            .findShippedBeforeForUpdate(shippedBefore, PageRequest.of(0, batchSize))
+            .stream()
+            .map(Order::getId)
+            .toList();
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+        List<Long> productIds = productRepository.findIdsByOrderIdIn(orderIds);
+
+        orderRepository.archiveAllByIdIn(orderIds);
+        orderRepository.archiveProductLinksByIdIn(orderIds);
+        productRepository.unlinkFromOrders(orderIds);
+        orderRepository.deleteAllByIdIn(orderIds);
+        // the products are updated with native statements: their cached state still points to the archived orders
+        AfterCommit.run(() -> productIds.forEach(id -> entityManagerFactory.getCache().evict(Product.class, id)));
+        return orderIds.size();
+    }
+
+    private boolean isPostgreSql() {
+        try {
+            return POSTGRESQL.equals(JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName));
+        } catch (MetaDataAccessException e) {
+            LOG.warn("Could not read the database product name, skipping the creation of order partitions", e);
+            return false;
+        }
+    }
+}
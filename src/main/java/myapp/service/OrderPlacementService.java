@@ -0,0 +1,168 @@
+package myapp.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import myapp.config.ApplicationProperties;
+import myapp.domain.Address;
+import myapp.domain.Order;
+import myapp.domain.Product;
+import myapp.domain.StockReservation;
+import myapp.repository.AddressRepository;
+import myapp.repository.OrderRepository;
+import myapp.repository.ProductRepository;
+import myapp.service.dto.CartDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service placing {@link Order orders} from a {@link CartDTO cart}.
+ * <p>
+ * Placing an order is one transaction: the stock of every product is reserved, the order is created with amounts
+ * computed from the current prices, and the products and shipping address are linked to it. The stock of each product is
+ * taken out with one conditional update, then the reservations are inserted as a JDBC batch; they are committed and the
+ * products linked with one statement each, whatever the size of the cart. If any product is short of stock, nothing is
+ * written.
+ * <p>
+ * Placement latency, commit included, is recorded in the {@value #PLACEMENT_TIMER_NAME} timer, tagged by outcome.
+ */
+@Service
+public class OrderPlacementService {
+
+    public static final String PLACEMENT_TIMER_NAME = "app.orders.placement";
+
+    static final String PLACED_STATUS = "PLACED";
+
+    private static final Logger LOG = LoggerFactory.getLogger(OrderPlacementService.class);
+
+    private final StockReservationService stockReservationService;
+
+    private final ProductRepository productRepository;
+
+    private final OrderRepository orderRepository;
+
+    private final AddressRepository addressRepository;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Timer placedTimer;
+
+    private final Timer insufficientStockTimer;
+
+    private final Timer failedTimer;
+
+    public OrderPlacementService(
+        StockReservationService stockReservationService,
+        ProductRepository productRepository,
+        OrderRepository orderRepository,
+        AddressRepository addressRepository,
+        EntityManagerFactory entityManagerFactory,
+        ApplicationProperties applicationProperties,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry
+    ) {
+        this.stockReservationService = stockReservationService;
+        this.productRepository = productRepository;
+        this.orderRepository = orderRepository;
+        this.addressRepository = addressRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.applicationProperties = applicationProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.placedTimer = placementTimer("placed", meterRegistry);
+        this.insufficientStockTimer = placementTimer("insufficient-stock", meterRegistry);
+        this.failedTimer = placementTimer("failed", meterRegistry);
+    }
+
+    private static Timer placementTimer(String outcome, MeterRegistry meterRegistry) {
+        return Timer.builder(PLACEMENT_TIMER_NAME)
+            .description("Time taken to place an order, commit included")
+            .tag("outcome", outcome)
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Place an order.
+     *
+     * @param cart the cart to check out.
+     * @return the placed order.
+     * @throws InsufficientStockException if a product does not exist, is discontinued or is short of stock.
+     * @throws NoSuchElementException if the shipping address does not exist.
+     */
+    public Order place(CartDTO cart) {
+        LOG.debug("Request to place an Order : {}", cart);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Timer timer = failedTimer;
+        try {
+            Order order = transactionTemplate.execute(status -> placeInTransaction(cart));
+            timer = placedTimer;
+            return order;
+        } catch (InsufficientStockException e) {
+            timer = insufficientStockTimer;
+            throw e;
+        } finally {
+            sample.stop(timer);
+        }
+    }
+
+    private Order placeInTransaction(CartDTO cart) {
+        // lines of the same product are merged, and products are reserved in id order so that concurrent checkouts
+        // lock their rows in the same order and cannot deadlock
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        cart.getItems().forEach(item -> quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum));
+
+        Address shippingAddress = addressRepository.findById(cart.getShippingAddressId()).orElseThrow();
+
+        List<Long> reservationIds = stockReservationService.reserveAll(quantities).stream().map(StockReservation::getId).toList();
+        stockReservationService.commitAll(reservationIds);
+
+        Map<Long, Product> products = productRepository
+            .findAllById(quantities.keySet())
+            .stream()
+            .collect(Collectors.toMap(Product::getId, Function.identity()));
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            subtotal = subtotal.add(products.get(line.getKey()).getPrice().multiply(BigDecimal.valueOf(line.getValue())));
+        }
+        BigDecimal shippingCost = shippingCost(subtotal);
+
+        Order order = orderRepository.save(
+            new Order()
+                .orderDate(Instant.now())
+                .status(PLACED_STATUS)
+                .totalAmount(subtotal.add(shippingCost))
+                .shippingCost(shippingCost)
+                .shippingAddress(shippingAddress)
+                .customer(shippingAddress.getCustomer())
+        );
+        // the products are not modified through the entities: they may come from the second-level cache with their
+        // stock as it was before the reservations, and writing them back would overwrite it
+        productRepository.linkToOrder(quantities.keySet(), order.getId());
+        AfterCommit.run(() -> quantities.keySet().forEach(id -> entityManagerFactory.getCache().evict(Product.class, id)));
+        return order;
+    }
+
+    private BigDecimal shippingCost(BigDecimal subtotal) {
+        ApplicationProperties.OrderPlacement orderPlacement = applicationProperties.getOrderPlacement();
+        return subtotal.compareTo(orderPlacement.getFreeShippingThreshold()) >= 0 ? BigDecimal.ZERO : orderPlacement.getShippingCost();
+    }
+}
@@ -1,12 +1,25 @@
 package myapp.service;
 
+import jakarta.persistence.EntityManagerFactory;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import myapp.config.ApplicationProperties;
 import myapp.domain.Order;
+import myapp.domain.Product;
 import myapp.repository.OrderRepository;
+import myapp.repository.ProductRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,8 +34,26 @@ public class OrderService {
 
     private final OrderRepository orderRepository;
 
-    public OrderService(OrderRepository orderRepository) {
+    private final ProductRepository productRepository;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final NdjsonExporter ndjsonExporter;
+
+    public OrderService(
+        OrderRepository orderRepository,
+        ProductRepository productRepository,
+        EntityManagerFactory entityManagerFactory,
+        ApplicationProperties applicationProperties,
+        NdjsonExporter ndjsonExporter
+    ) {
         this.orderRepository = orderRepository;
+        this.productRepository = productRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.applicationProperties = applicationProperties;
+        this.ndjsonExporter = ndjsonExporter;
     }
 
     /**
@@ -84,15 +115,82 @@ public class OrderService {
     }
 
     /**
-     * Get all the orders.
+     * Get all the orders placed in a date window.
+     * <p>
+     * In all the listings, the window defaults to the last {@code default-window-months} months: on PostgreSQL, only
+     * the partitions of the window are scanned.
      *
+     * @param from the start of the window, inclusive, or {@code null} for the default window.
+     * @param to the end of the window, exclusive, or {@code null} for no end.
      * @param pageable the pagination information.
      * @return the list of entities.
      */
     @Transactional(readOnly = true)
-    public Page<Order> findAll(Pageable pageable) {
-        LOG.debug("Request to get all Orders");
-        return orderRepository.findAll(pageable);
+    public Page<Order> findAll(Instant from, Instant to, Pageable pageable) {
+        LOG.debug("Request to get all Orders from {} to {}", from, to);
+        Instant windowStart = from != null ? from : defaultWindowStart();
+        if (to == null) {
+            return orderRepository.findAllByOrderDateGreaterThanEqual(windowStart, pageable);
+        }
+        return orderRepository.findAllByOrderDateGreaterThanEqualAndOrderDateLessThan(windowStart, to, pageable);
+    }
+
+    private Instant defaultWindowStart() {
+        int months = applicationProperties.getOrderStorage().getDefaultWindowMonths();
+        return ZonedDateTime.now(ZoneOffset.UTC).minusMonths(months).toInstant();
+    }
+
+    /**
+     * Get all the orders placed in a date window, see {@link #findAll(Instant, Instant, Pageable)}, without counting them.
+     *
+     * @param from the start of the window, inclusive, or {@code null} for the default window.
+     * @param to the end of the window, exclusive, or {@code null} for no end.
+     * @param pageable the pagination information.
+     * @return the slice of entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<Order> findSlice(Instant from, Instant to, Pageable pageable) {
+        LOG.debug("Request to get a slice of Orders from {} to {}", from, to);
+        Instant windowStart = from != null ? from : defaultWindowStart();
+        if (to == null) {
+            return orderRepository.findSliceByOrderDateGreaterThanEqual(windowStart, pageable);
+        }
+        return orderRepository.findSliceByOrderDateGreaterThanEqualAndOrderDateLessThan(windowStart, to, pageable);
+    }
+
+    /**
+     * Get the orders placed in a date window, see {@link #findAll(Instant, Instant, Pageable)}, following the given id,
+     * in id order, without counting them.
+     *
+     * @param cursor the id of the last order already read.
+     * @param from the start of the window, inclusive, or {@code null} for the default window.
+     * @param to the end of the window, exclusive, or {@code null} for no end.
+     * @param size the maximum number of orders to return.
+     * @return the slice of entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<Order> findAllAfter(Long cursor, Instant from, Instant to, int size) {
+        LOG.debug("Request to get Orders after {}, from {} to {}", cursor, from, to);
+        Instant windowStart = from != null ? from : defaultWindowStart();
+        if (to == null) {
+            return orderRepository.findAllAfterIdByOrderDateFrom(cursor, windowStart, PageRequest.of(0, size));
+        }
+        return orderRepository.findAllAfterIdByOrderDateBetween(cursor, windowStart, to, PageRequest.of(0, size));
+    }
+
+    /**
+     * Write all the orders as newline-delimited JSON, in id order.
+     *
+     * @param out the target.
+     * @return the number of orders written.
+     * @throws IOException if the target cannot be written.
+     */
+    @Transactional(readOnly = true)
+    public long exportAll(OutputStream out) throws IOException {
+        LOG.debug("Request to export all Orders");
+        try (Stream<Order> orders = orderRepository.streamAllBy()) {
+            return ndjsonExporter.write(orders, out);
+        }
     }
 
     /**
@@ -114,6 +212,12 @@ public class OrderService {
      */
     public void delete(Long id) {
         LOG.debug("Request to delete Order : {}", id);
+        // on PostgreSQL no foreign key ties the products to the partitioned orders table anymore
+        List<Long> productIds = productRepository.findIdsByOrderIdIn(List.of(id));
+        if (!productIds.isEmpty()) {
+            productRepository.unlinkFromOrders(List.of(id));
+            AfterCommit.run(() -> productIds.forEach(productId -> entityManagerFactory.getCache().evict(Product.class, productId)));
+        }
         orderRepository.deleteById(id);
     }
 }
@@ -0,0 +1,302 @@
+package myapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import myapp.config.ApplicationProperties;
+import myapp.domain.Product;
+import myapp.domain.enumeration.ProductStatus;
+import myapp.service.dto.ProductImportReportDTO;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service importing large catalogs of {@link Product products}.
+ * <p>
+ * The document is read one line at a time, so its size is not bounded by the heap. Every row is validated with the
+ * Bean Validation constraints of {@link Product}; valid rows are inserted in chunks of
+ * {@code application.product-import.chunk-size}, each in its own transaction. Within a chunk the persistence context is
+ * flushed and cleared every {@code hibernate.jdbc.batch_size} rows, so that the inserts go out as JDBC batches and the
+ * session never holds more than one batch of entities.
+ * <p>
+ * Imported products are always new: an {@code id} column or property is ignored, and so are relationships.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProductImportService.class);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Validator validator;
+
+    private final ObjectMapper objectMapper;
+
+    private final ProductSearchIndex productSearchIndex;
+
+    private final ProductPriceIndex productPriceIndex;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final int jdbcBatchSize;
+
+    public ProductImportService(
+        PlatformTransactionManager transactionManager,
+        Validator validator,
+        ObjectMapper objectMapper,
+        ProductSearchIndex productSearchIndex,
+        ProductPriceIndex productPriceIndex,
+        ApplicationProperties applicationProperties,
+        @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:25}") int jdbcBatchSize
+    ) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.productSearchIndex = productSearchIndex;
+        this.productPriceIndex = productPriceIndex;
+        this.applicationProperties = applicationProperties;
+        this.jdbcBatchSize = jdbcBatchSize;
+    }
+
+    /**
+     * Import products from newline-delimited JSON, one product per line. Blank lines are skipped.
+     *
+     * @param reader the document.
+     * @return the import report.
+     * @throws IOException if the document cannot be read.
+     */
+    public ProductImportReportDTO importNdjson(Reader reader) throws IOException {
+        LOG.debug("Request to import Products from NDJSON");
+        return importRows(new BufferedReader(reader), 1, this::parseJson);
+    }
+
+    /**
+     * Import products from CSV laid out like {@code config/liquibase/fake-data/product.csv}: a header row naming the
+     * columns, then one product per line. Fields are separated by {@code ;}, or by {@code ,} if the header has no
+     * {@code ;}, and may be enclosed in double quotes. Dates without an offset are read as UTC.
+     *
+     * @param reader the document.
+     * @return the import report.
+     * @throws IOException if the document cannot be read.
+     */
+    public ProductImportReportDTO importCsv(Reader reader) throws IOException {
+        LOG.debug("Request to import Products from CSV");
+        BufferedReader lines = new BufferedReader(reader);
+        String header = lines.readLine();
+        if (header == null) {
+            return new ProductImportReportDTO();
+        }
+        char delimiter = header.indexOf(';') >= 0 ? ';' : ',';
+        List<String> columns = splitCsv(header.strip(), delimiter);
+        return importRows(lines, 2, line -> parseCsv(columns, line, delimiter));
+    }
+
+    private ProductImportReportDTO importRows(BufferedReader lines, long firstLine, RowParser parser) throws IOException {
+        ProductImportReportDTO report = new ProductImportReportDTO();
+        int chunkSize = applicationProperties.getProductImport().getChunkSize();
+        List<Product> chunk = new ArrayList<>(chunkSize);
+        List<Long> chunkLines = new ArrayList<>(chunkSize);
+        long lineNumber = firstLine - 1;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            Product product;
+            try {
+                product = parser.parse(line);
+            } catch (InvalidRowException e) {
+                reject(report, lineNumber, List.of(e.getMessage()));
+                continue;
+            }
+            List<String> violations = validator
+                .validate(product)
+                .stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .toList();
+            if (!violations.isEmpty()) {
+                reject(report, lineNumber, violations);
+                continue;
+            }
+            chunk.add(product);
+            chunkLines.add(lineNumber);
+            if (chunk.size() >= chunkSize) {
+                insertChunk(report, chunk, chunkLines);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            insertChunk(report, chunk, chunkLines);
+        }
+        LOG.debug("Imported {} Products, rejected {}", report.getImported(), report.getFailed());
+        return report;
+    }
+
+    private void insertChunk(ProductImportReportDTO report, List<Product> chunk, List<Long> chunkLines) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // imported products are not read back soon enough to be worth a second-level cache entry each
+                entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+                for (int i = 0; i < chunk.size(); i++) {
+                    Product product = chunk.get(i);
+                    entityManager.persist(product);
+                    productSearchIndex.indexAfterCommit(product);
+                    if ((i + 1) % jdbcBatchSize == 0) {
+                        entityManager.flush();
+                        entityManager.clear();
+                    }
+                }
+                entityManager.flush();
+                entityManager.clear();
+                productPriceIndex.indexAllAfterCommit(chunk);
+            });
+            report.setImported(report.getImported() + chunk.size());
+        } catch (PersistenceException | DataAccessException e) {
+            // flushing the shared entity manager throws untranslated JPA exceptions, the commit translated ones
+            LOG.warn("Could not insert a chunk of {} Products: {}", chunk.size(), e.getMessage());
+            String message = "Chunk rolled back: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            chunkLines.forEach(line -> reject(report, line, List.of(message)));
+        }
+        chunk.clear();
+        chunkLines.clear();
+    }
+
+    private void reject(ProductImportReportDTO report, long line, List<String> messages) {
+        report.setFailed(report.getFailed() + 1);
+        if (report.getErrors().size() < applicationProperties.getProductImport().getMaxReportedErrors()) {
+            report.getErrors().add(new ProductImportReportDTO.RowError(line, messages));
+        }
+    }
+
+    private Product parseJson(String line) {
+        try {
+            return detach(objectMapper.readValue(line, Product.class));
+        } catch (JsonProcessingException e) {
+            throw new InvalidRowException(e.getOriginalMessage());
+        }
+    }
+
+    private Product parseCsv(List<String> columns, String line, char delimiter) {
+        List<String> values = splitCsv(line, delimiter);
+        if (values.size() != columns.size()) {
+            throw new InvalidRowException("Expected " + columns.size() + " fields but found " + values.size());
+        }
+        Product product = new Product();
+        for (int i = 0; i < columns.size(); i++) {
+            String column = columns.get(i);
+            String value = values.get(i).isEmpty() ? null : values.get(i);
+            try {
+                setColumn(product, column, value);
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                throw new InvalidRowException("Invalid value '" + value + "' for " + column);
+            }
+        }
+        return product;
+    }
+
+    private static void setColumn(Product product, String column, String value) {
+        switch (column) {
+            case "title" -> product.setTitle(value);
+            case "keywords" -> product.setKeywords(value);
+            case "description" -> product.setDescription(value);
+            case "rating" -> product.setRating(value == null ? null : Integer.valueOf(value));
+            case "price" -> product.setPrice(value == null ? null : new BigDecimal(value));
+            case "quantity_in_stock" -> product.setQuantityInStock(value == null ? null : Integer.valueOf(value));
+            case "status" -> product.setStatus(value == null ? null : ProductStatus.valueOf(value));
+            case "weight" -> product.setWeight(value == null ? null : Double.valueOf(value));
+            case "dimensions" -> product.setDimensions(value);
+            case "date_added" -> product.setDateAdded(parseInstant(value));
+            case "date_modified" -> product.setDateModified(parseInstant(value));
+            default -> {
+                // the id and unknown columns are ignored
+            }
+        }
+    }
+
+    private static Instant parseInstant(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Instant.parse(value);
+        } catch (DateTimeParseException e) {
+            return LocalDateTime.parse(value).toInstant(ZoneOffset.UTC);
+        }
+    }
+
+    private static Product detach(Product product) {
+        return product.id(null).wishList(null).order(null);
+    }
+
+    /**
+     * Split one CSV record. A field enclosed in double quotes may contain the delimiter, and {@code ""} stands for a
+     * literal quote; records spanning several lines are not supported.
+     */
+    static List<String> splitCsv(String line, char delimiter) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    @FunctionalInterface
+    private interface RowParser {
+        Product parse(String line);
+    }
+
+    private static class InvalidRowException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        InvalidRowException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,491 @@
+package myapp.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import myapp.domain.Product;
+import myapp.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * In-memory columnar index over {@link Product#getPrice()} and {@link Product#getRating()}.
+ * <p>
+ * Products are kept as parallel primitive arrays of price in cents, rating and id, sorted by price (then id): a price
+ * range is found with two binary searches, and the ratings of the range are then scanned in a tight loop over a
+ * {@code byte[]}, which the JIT compiler vectorizes. Queries never hit the database.
+ * <p>
+ * The index is loaded lazily on the first query and then kept current by {@link ProductService}, which hands over
+ * every write once its transaction has committed, and by {@link ProductImportService}, which hands over each chunk in
+ * one batch. The writes of other instances, and those not made through the services, are brought in by a full rebuild
+ * every {@code application.product-index.refresh-interval}: the new index is loaded while the current one keeps
+ * serving queries, and the writes handed over meanwhile are replayed on it before it replaces the current one.
+ */
+@Component
+public class ProductPriceIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProductPriceIndex.class);
+
+    private static final int LOAD_BATCH_SIZE = 500;
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private static final BigDecimal MAX_PRICE = BigDecimal.valueOf(Long.MAX_VALUE, 2);
+    private static final BigDecimal MIN_PRICE = BigDecimal.valueOf(Long.MIN_VALUE, 2);
+
+    /**
+     * Rating of the products which have none, below any rating a query can ask for.
+     */
+    static final byte NO_RATING = -1;
+
+    private final ProductRepository productRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Columns columns = new Columns(0);
+
+    /**
+     * The writes handed over while a rebuild loads the products, replayed on the new index; {@code null} otherwise.
+     */
+    private List<Consumer<Columns>> pendingWrites;
+
+    private volatile boolean loaded;
+
+    public ProductPriceIndex(ProductRepository productRepository, PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        // loaded in read-write transactions of its own, on the primary: the writes committed before the first load are
+        // not handed over, and a lagging read replica could miss them
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Search the index.
+     *
+     * @param minPrice the minimum price, inclusive, or {@code null} for no minimum.
+     * @param maxPrice the maximum price, inclusive, or {@code null} for no maximum.
+     * @param minRating the minimum rating, inclusive, or {@code null} to also match the products without rating.
+     * @return the ids of the matching products, cheapest first.
+     */
+    public long[] search(BigDecimal minPrice, BigDecimal maxPrice, Integer minRating) {
+        long minCents = minPrice == null ? Long.MIN_VALUE : toCents(minPrice, RoundingMode.CEILING);
+        long maxCents = maxPrice == null ? Long.MAX_VALUE : toCents(maxPrice, RoundingMode.FLOOR);
+        int rating = minRating == null ? Byte.MIN_VALUE : Math.max(minRating, 0);
+        ensureLoaded();
+
+        lock.readLock().lock();
+        try {
+            return columns.search(minCents, maxCents, rating);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Index (or re-index) a product once the current transaction commits.
+     *
+     * @param product the persisted product.
+     */
+    public void indexAfterCommit(Product product) {
+        long id = product.getId();
+        long cents = toCents(product.getPrice(), RoundingMode.HALF_UP);
+        byte rating = toRating(product.getRating());
+        AfterCommit.run(() -> apply(columns -> columns.put(id, cents, rating)));
+    }
+
+    /**
+     * Index (or re-index) products once the current transaction commits, merging them into the index in one pass.
+     *
+     * @param products the persisted products.
+     */
+    public void indexAllAfterCommit(Collection<Product> products) {
+        Columns.Builder builder = new Columns.Builder();
+        for (Product product : products) {
+            builder.add(product.getId(), toCents(product.getPrice(), RoundingMode.HALF_UP), toRating(product.getRating()));
+        }
+        Columns batch = builder.build();
+        AfterCommit.run(() -> apply(columns -> columns.putAll(batch)));
+    }
+
+    /**
+     * Remove a product from the index once the current transaction commits.
+     *
+     * @param id the id of the deleted product.
+     */
+    public void removeAfterCommit(long id) {
+        AfterCommit.run(() -> apply(columns -> columns.remove(id)));
+    }
+
+    /**
+     * Rebuild the index, once it has been loaded, so that it catches up with the writes it was not handed.
+     */
+    @Scheduled(
+        initialDelayString = "${application.product-index.refresh-interval:PT10M}",
+        fixedDelayString = "${application.product-index.refresh-interval:PT10M}"
+    )
+    public void refresh() {
+        if (loaded) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Reload the index from the database, then replace the current one with it.
+     */
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingWrites = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Columns rebuilt = null;
+        try {
+            Columns.Builder builder = new Columns.Builder();
+            long cursor = Long.MIN_VALUE;
+            Slice<Product> slice;
+            do {
+                long after = cursor;
+                // a transaction per batch, so that no persistence context ever holds more than one batch of products
+                slice = transactionTemplate.execute(status -> productRepository.findAllAfterId(after, PageRequest.of(0, LOAD_BATCH_SIZE)));
+                for (Product product : slice) {
+                    builder.add(product.getId(), toCents(product.getPrice(), RoundingMode.HALF_UP), toRating(product.getRating()));
+                    cursor = product.getId();
+                }
+            } while (slice.hasNext());
+            rebuilt = builder.build();
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (rebuilt != null) {
+                    for (Consumer<Columns> write : pendingWrites) {
+                        write.accept(rebuilt);
+                    }
+                    columns = rebuilt;
+                    loaded = true;
+                }
+                pendingWrites = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        LOG.debug("Indexed the prices of {} products", rebuilt.size());
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    rebuild();
+                }
+            }
+        }
+    }
+
+    private void apply(Consumer<Columns> write) {
+        lock.writeLock().lock();
+        try {
+            // before the first load the database is the source of truth, the rebuild will pick this write up
+            if (loaded) {
+                write.accept(columns);
+            }
+            if (pendingWrites != null) {
+                pendingWrites.add(write);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Convert a price to cents, clamped to the range of {@code long}: the bounds of a query come from users, and a
+     * price beyond that range still compares with the indexed ones as it should once clamped.
+     */
+    static long toCents(BigDecimal price, RoundingMode roundingMode) {
+        if (price.signum() == 0) {
+            return 0;
+        }
+        if (price.compareTo(MAX_PRICE) >= 0) {
+            return Long.MAX_VALUE;
+        }
+        if (price.compareTo(MIN_PRICE) <= 0) {
+            return Long.MIN_VALUE;
+        }
+        if ((long) price.precision() - price.scale() < -2) {
+            // under a tenth of a cent, which rounds as a tenth of a cent of the same sign: rescaling a price such as
+            // 1e-999999999 would compute a power of ten of a billion digits
+            price = BigDecimal.valueOf(price.signum(), 3);
+        }
+        return price.movePointRight(2).setScale(0, roundingMode).longValue();
+    }
+
+    static byte toRating(Integer rating) {
+        return rating == null ? NO_RATING : (byte) Math.clamp(rating, 0, Byte.MAX_VALUE);
+    }
+
+    /**
+     * Price in cents, rating and id of the indexed products, in parallel arrays sorted by price then id.
+     */
+    static final class Columns {
+
+        private long[] prices;
+        private byte[] ratings;
+        private long[] ids;
+        private int size;
+
+        Columns(int capacity) {
+            prices = new long[Math.max(capacity, 4)];
+            ratings = new byte[prices.length];
+            ids = new long[prices.length];
+        }
+
+        int size() {
+            return size;
+        }
+
+        long[] search(long minPrice, long maxPrice, int minRating) {
+            if (minPrice > maxPrice) {
+                return new long[0];
+            }
+            int from = lowerBound(minPrice);
+            int to = maxPrice == Long.MAX_VALUE ? size : lowerBound(maxPrice + 1);
+            if (minRating <= NO_RATING) {
+                return Arrays.copyOfRange(ids, from, to);
+            }
+            // count first, branch-free, so that the ids are then copied into an array of the right size
+            int count = 0;
+            for (int i = from; i < to; i++) {
+                count += ratings[i] >= minRating ? 1 : 0;
+            }
+            long[] result = new long[count];
+            int next = 0;
+            for (int i = from; i < to && next < count; i++) {
+                if (ratings[i] >= minRating) {
+                    result[next++] = ids[i];
+                }
+            }
+            return result;
+        }
+
+        void put(long id, long price, byte rating) {
+            remove(id);
+            int insertAt = -position(price, id) - 1;
+            ensureCapacity(size + 1);
+            System.arraycopy(prices, insertAt, prices, insertAt + 1, size - insertAt);
+            System.arraycopy(ratings, insertAt, ratings, insertAt + 1, size - insertAt);
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            prices[insertAt] = price;
+            ratings[insertAt] = rating;
+            ids[insertAt] = id;
+            size++;
+        }
+
+        /**
+         * Put every product of a batch, replacing those already indexed: the rows of the batch are dropped in one
+         * pass, then both sorted columns are merged from the end, so that no row moves more than twice.
+         */
+        void putAll(Columns batch) {
+            if (batch.size == 0) {
+                return;
+            }
+            long[] batchIds = Arrays.copyOf(batch.ids, batch.size);
+            Arrays.sort(batchIds);
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (Arrays.binarySearch(batchIds, ids[i]) < 0) {
+                    prices[kept] = prices[i];
+                    ratings[kept] = ratings[i];
+                    ids[kept] = ids[i];
+                    kept++;
+                }
+            }
+            size = kept;
+
+            int total = size + batch.size;
+            ensureCapacity(total);
+            int i = size - 1;
+            int j = batch.size - 1;
+            for (int k = total - 1; j >= 0; k--) {
+                if (i >= 0 && isBefore(batch.prices[j], batch.ids[j], prices[i], ids[i])) {
+                    prices[k] = prices[i];
+                    ratings[k] = ratings[i];
+                    ids[k] = ids[i];
+                    i--;
+                } else {
+                    prices[k] = batch.prices[j];
+                    ratings[k] = batch.ratings[j];
+                    ids[k] = batch.ids[j];
+                    j--;
+                }
+            }
+            size = total;
+        }
+
+        boolean remove(long id) {
+            // a scan of the ids, which costs no more than moving the rows after it
+            int index = -1;
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(prices, index + 1, prices, index, size - index - 1);
+            System.arraycopy(ratings, index + 1, ratings, index, size - index - 1);
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > prices.length) {
+                int length = Math.max(capacity, prices.length * 2);
+                prices = Arrays.copyOf(prices, length);
+                ratings = Arrays.copyOf(ratings, length);
+                ids = Arrays.copyOf(ids, length);
+            }
+        }
+
+        /**
+         * @return the index of the first product costing {@code price} or more.
+         */
+        private int lowerBound(long price) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (prices[middle] < price) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * @return the index of the product, or {@code -(insertion point) - 1} as {@link Arrays#binarySearch(long[], long)}.
+         */
+        private int position(long price, long id) {
+            int low = lowerBound(price);
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (prices[middle] != price || ids[middle] > id) {
+                    high = middle;
+                } else if (ids[middle] < id) {
+                    low = middle + 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -low - 1;
+        }
+
+        private static boolean isBefore(long price, long id, long otherPrice, long otherId) {
+            return price < otherPrice || (price == otherPrice && id < otherId);
+        }
+
+        /**
+         * Columns loaded in bulk, sorted once.
+         */
+        static final class Builder {
+
+            private long[] prices = new long[16];
+            private byte[] ratings = new byte[16];
+            private long[] ids = new long[16];
+            private int size;
+
+            void add(long id, long price, byte rating) {
+                if (size == prices.length) {
+                    prices = Arrays.copyOf(prices, size * 2);
+                    ratings = Arrays.copyOf(ratings, size * 2);
+                    ids = Arrays.copyOf(ids, size * 2);
+                }
+                prices[size] = price;
+                ratings[size] = rating;
+                ids[size] = id;
+                size++;
+            }
+
+            Columns build() {
+                Columns columns = new Columns(size);
+                System.arraycopy(prices, 0, columns.prices, 0, size);
+                System.arraycopy(ratings, 0, columns.ratings, 0, size);
+                System.arraycopy(ids, 0, columns.ids, 0, size);
+                columns.size = size;
+                sort(columns, 0, size);
+                return columns;
+            }
+
+            /**
+             * Sort the rows by price then id, moving the three columns together: a quicksort over the primitive arrays,
+             * which spares boxing an index per product.
+             */
+            private static void sort(Columns columns, int from, int to) {
+                long[] prices = columns.prices;
+                long[] ids = columns.ids;
+                while (to - from > INSERTION_SORT_THRESHOLD) {
+                    int middle = (from + to) >>> 1;
+                    long pivotPrice = prices[middle];
+                    long pivotId = ids[middle];
+                    int i = from;
+                    int j = to - 1;
+                    while (i <= j) {
+                        while (isBefore(prices[i], ids[i], pivotPrice, pivotId)) {
+                            i++;
+                        }
+                        while (isBefore(pivotPrice, pivotId, prices[j], ids[j])) {
+                            j--;
+                        }
+                        if (i <= j) {
+                            swap(columns, i++, j--);
+                        }
+                    }
+                    // recurse into the smaller part and loop on the larger one, to bound the stack depth
+                    if (j + 1 - from < to - i) {
+                        sort(columns, from, j + 1);
+                        from = i;
+                    } else {
+                        sort(columns, i, to);
+                        to = j + 1;
+                    }
+                }
+                for (int i = from + 1; i < to; i++) {
+                    for (int j = i; j > from && isBefore(prices[j], ids[j], prices[j - 1], ids[j - 1]); j--) {
+                        swap(columns, j, j - 1);
+                    }
+                }
+            }
+
+            private static void swap(Columns columns, int i, int j) {
+                long price = columns.prices[i];
+                columns.prices[i] = columns.prices[j];
+                columns.prices[j] = price;
+                byte rating = columns.ratings[i];
+                columns.ratings[i] = columns.ratings[j];
+                columns.ratings[j] = rating;
+                long id = columns.ids[i];
+                columns.ids[i] = columns.ids[j];
+                columns.ids[j] = id;
+            }
+        }
+    }
+}
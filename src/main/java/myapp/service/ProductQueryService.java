@@ -0,0 +1,133 @@
+package myapp.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import myapp.domain.*; // for static metamodels
+import myapp.domain.Product;
+import myapp.repository.ProductRepository;
+import myapp.service.criteria.ProductCriteria;
+import myapp.service.dto.ProductFacetsDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tech.jhipster.service.QueryService;
+
+/**
+ * Service for executing complex queries for {@link Product} entities in the database.
+ * The main input is a {@link ProductCriteria} which gets converted to {@link Specification},
+ * in a way that all the filters must apply.
+ * It returns a {@link Page} of {@link Product} which fulfills the criteria, or the {@link ProductFacetsDTO facets}
+ * of the products which fulfill it.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ProductQueryService extends QueryService<Product> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProductQueryService.class);
+
+    private final ProductRepository productRepository;
+
+    private final EntityManager entityManager;
+
+    public ProductQueryService(ProductRepository productRepository, EntityManager entityManager) {
+        this.productRepository = productRepository;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Return a {@link Page} of {@link Product} which matches the criteria from the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page The page, which should be returned.
+     * @return the matching entities.
+     */
+    public Page<Product> findByCriteria(ProductCriteria criteria, Pageable page) {
+        LOG.debug("find by criteria : {}, page: {}", criteria, page);
+        final Specification<Product> specification = createSpecification(criteria);
+        return productRepository.findAll(specification, page);
+    }
+
+    /**
+     * Return the number of matching entities in the database.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the number of matching entities.
+     */
+    public long countByCriteria(ProductCriteria criteria) {
+        LOG.debug("count by criteria : {}", criteria);
+        final Specification<Product> specification = createSpecification(criteria);
+        return productRepository.count(specification);
+    }
+
+    /**
+     * Count the entities which match the criteria per status, per rating and per category, with one grouped query
+     * per facet. Each facet is counted without its own filter.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the facets of the matching entities.
+     */
+    public ProductFacetsDTO findFacetsByCriteria(ProductCriteria criteria) {
+        LOG.debug("find facets by criteria : {}", criteria);
+        ProductCriteria statusCriteria = criteria.copy();
+        statusCriteria.setStatus(null);
+        ProductCriteria ratingCriteria = criteria.copy();
+        ratingCriteria.setRating(null);
+        ProductCriteria categoryCriteria = criteria.copy();
+        categoryCriteria.setCategoryId(null);
+
+        ProductFacetsDTO facets = new ProductFacetsDTO();
+        facets.setStatus(countBy(createSpecification(statusCriteria), root -> root.get(Product_.status)));
+        facets.setRating(countBy(createSpecification(ratingCriteria), root -> root.get(Product_.rating)));
+        facets.setCategoryId(countBy(createSpecification(categoryCriteria), root -> root.join(Product_.categories).get(Category_.id)));
+        return facets;
+    }
+
+    private <X> Map<X, Long> countBy(Specification<Product> specification, Function<Root<Product>, Expression<X>> facet) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<Product> root = query.from(Product.class);
+        Expression<X> value = facet.apply(root);
+        Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+        Predicate hasValue = criteriaBuilder.isNotNull(value);
+        query
+            .multiselect(value, criteriaBuilder.countDistinct(root))
+            .where(predicate == null ? hasValue : criteriaBuilder.and(predicate, hasValue))
+            .groupBy(value)
+            .orderBy(criteriaBuilder.asc(value));
+
+        Map<X, Long> counts = new LinkedHashMap<>();
+        for (Tuple tuple : entityManager.createQuery(query).getResultList()) {
+            counts.put(tuple.get(0, value.getJavaType()), tuple.get(1, Long.class));
+        }
+        return counts;
+    }
+
+    /**
+     * Function to convert {@link ProductCriteria} to a {@link Specification}
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the matching {@link Specification} of the entity.
+     */
+    protected Specification<Product> createSpecification(ProductCriteria criteria) {
+        Specification<Product> specification = Specification.where(null);
+        if (criteria != null) {
+            // a product is in several categories: filtering on them requires distinct products
+            boolean distinct = Boolean.TRUE.equals(criteria.getDistinct()) || criteria.getCategoryId() != null;
+            // This has to be called first, because the distinct method returns null
+            specification = Specification.allOf(
+                distinct ? distinct(true) : null,
+                buildRangeSpecification(criteria.getId(), Product_.id),
+                buildSpecification(criteria.getStatus(), Product_.status),
+                buildRangeSpecification(criteria.getPrice(), Product_.price),
+                buildRangeSpecification(criteria.getRating(), Product_.rating),
+                buildRangeSpecification(criteria.getDateAdded(), Product_.dateAdded),
+                buildSpecification(criteria.getCategoryId(), root -> root.join(Product_.categories, JoinType.LEFT).get(Category_.id))
+            );
+        }
+        return specification;
+    }
+}
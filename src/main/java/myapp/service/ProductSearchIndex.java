@@ -0,0 +1,408 @@
+package myapp.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import myapp.domain.Product;
+import myapp.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * In-memory inverted index over {@link Product#getTitle()}, {@link Product#getKeywords()} and
+ * {@link Product#getDescription()}.
+ * <p>
+ * Every term maps to a postings list of product ids (kept sorted, as primitive {@code long}s) with a
+ * field-weighted term frequency. Queries are scored with TF-IDF and never hit the database.
+ * <p>
+ * The index is loaded lazily on the first query and then kept current by {@link ProductService},
+ * which hands over every write once its transaction has committed. The writes of other instances, and those not made
+ * through the services, are brought in by a full rebuild every {@code application.product-index.refresh-interval}:
+ * the new index is loaded while the current one keeps serving queries, and the writes handed over meanwhile are
+ * replayed on it before it replaces the current one.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private static final int MIN_TOKEN_LENGTH = 2;
+    private static final int LOAD_BATCH_SIZE = 500;
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private static final int TITLE_WEIGHT = 5;
+    private static final int KEYWORDS_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private final ProductRepository productRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Terms terms = new Terms();
+
+    /**
+     * The writes handed over while a rebuild loads the products, replayed on the new index; {@code null} otherwise.
+     */
+    private List<Write> pendingWrites;
+
+    private volatile boolean loaded;
+
+    public ProductSearchIndex(ProductRepository productRepository, PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        // loaded in read-write transactions of its own, on the primary: the writes committed before the first load are
+        // not handed over, and a lagging read replica could miss them
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Search the index.
+     *
+     * @param query the free-text query.
+     * @return the ids of the matching products, best match first.
+     */
+    public long[] search(String query) {
+        String[] queryTerms = Arrays.stream(tokenize(query)).distinct().toArray(String[]::new);
+        if (queryTerms.length == 0) {
+            return new long[0];
+        }
+        ensureLoaded();
+
+        lock.readLock().lock();
+        try {
+            int documentCount = Math.max(1, terms.termsByProduct.size());
+            Postings[] matches = new Postings[queryTerms.length];
+            int candidateCount = 0;
+            for (int i = 0; i < queryTerms.length; i++) {
+                matches[i] = terms.postingsByTerm.get(queryTerms[i]);
+                if (matches[i] != null) {
+                    candidateCount += matches[i].size;
+                }
+            }
+            if (candidateCount == 0) {
+                return new long[0];
+            }
+
+            long[] candidates = new long[candidateCount];
+            int offset = 0;
+            for (Postings postings : matches) {
+                if (postings != null) {
+                    System.arraycopy(postings.ids, 0, candidates, offset, postings.size);
+                    offset += postings.size;
+                }
+            }
+            Arrays.sort(candidates);
+            candidates = distinctSorted(candidates);
+
+            double[] scores = new double[candidates.length];
+            int[] matchedTerms = new int[candidates.length];
+            for (Postings postings : matches) {
+                if (postings == null) {
+                    continue;
+                }
+                double idf = Math.log(1.0 + (double) documentCount / postings.size);
+                for (int i = 0; i < postings.size; i++) {
+                    int candidate = Arrays.binarySearch(candidates, postings.ids[i]);
+                    scores[candidate] += (1.0 + Math.log(postings.frequencies[i])) * idf;
+                    matchedTerms[candidate]++;
+                }
+            }
+            for (int i = 0; i < scores.length; i++) {
+                // favour products matching more of the query terms
+                scores[i] *= (double) matchedTerms[i] / queryTerms.length;
+            }
+            sortByScore(scores, candidates, 0, candidates.length);
+            return candidates;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Index (or re-index) a product once the current transaction commits.
+     *
+     * @param product the persisted product.
+     */
+    public void indexAfterCommit(Product product) {
+        Write write = new Write(product.getId(), termFrequencies(product));
+        AfterCommit.run(() -> apply(write));
+    }
+
+    /**
+     * Remove a product from the index once the current transaction commits.
+     *
+     * @param id the id of the deleted product.
+     */
+    public void removeAfterCommit(long id) {
+        Write write = new Write(id, null);
+        AfterCommit.run(() -> apply(write));
+    }
+
+    /**
+     * Rebuild the index, once it has been loaded, so that it catches up with the writes it was not handed.
+     */
+    @Scheduled(
+        initialDelayString = "${application.product-index.refresh-interval:PT10M}",
+        fixedDelayString = "${application.product-index.refresh-interval:PT10M}"
+    )
+    public void refresh() {
+        if (loaded) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Reload the index from the database, then replace the current one with it.
+     */
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingWrites = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Terms rebuilt = new Terms();
+        boolean complete = false;
+        try {
+            long cursor = Long.MIN_VALUE;
+            Slice<Product> slice;
+            do {
+                long after = cursor;
+                // a transaction per batch, so that no persistence context ever holds more than one batch of products
+                slice = transactionTemplate.execute(status -> productRepository.findAllAfterId(after, PageRequest.of(0, LOAD_BATCH_SIZE)));
+                for (Product product : slice) {
+                    rebuilt.put(product.getId(), termFrequencies(product));
+                    cursor = product.getId();
+                }
+            } while (slice.hasNext());
+            complete = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (complete) {
+                    pendingWrites.forEach(write -> write.applyTo(rebuilt));
+                    terms = rebuilt;
+                    loaded = true;
+                }
+                pendingWrites = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        LOG.debug("Indexed {} products, {} distinct terms", rebuilt.termsByProduct.size(), rebuilt.postingsByTerm.size());
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    rebuild();
+                }
+            }
+        }
+    }
+
+    private void apply(Write write) {
+        lock.writeLock().lock();
+        try {
+            // before the first load the database is the source of truth, the rebuild will pick this write up
+            if (loaded) {
+                write.applyTo(terms);
+            }
+            if (pendingWrites != null) {
+                pendingWrites.add(write);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static Map<String, Integer> termFrequencies(Product product) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        addTerms(frequencies, product.getTitle(), TITLE_WEIGHT);
+        addTerms(frequencies, product.getKeywords(), KEYWORDS_WEIGHT);
+        addTerms(frequencies, product.getDescription(), DESCRIPTION_WEIGHT);
+        return frequencies;
+    }
+
+    private static void addTerms(Map<String, Integer> frequencies, String text, int weight) {
+        for (String term : tokenize(text)) {
+            frequencies.merge(term, weight, Integer::sum);
+        }
+    }
+
+    static String[] tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return new String[0];
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : TOKEN_SEPARATOR.split(normalized)) {
+            if (token.length() >= MIN_TOKEN_LENGTH) {
+                tokens.add(token);
+            }
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    private static long[] distinctSorted(long[] sorted) {
+        int size = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[size - 1]) {
+                sorted[size++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, size);
+    }
+
+    /**
+     * Sort products best match first, by descending score then ascending id, moving scores and ids together: a
+     * quicksort over the primitive arrays, which spares boxing an index per candidate.
+     */
+    static void sortByScore(double[] scores, long[] ids, int from, int to) {
+        while (to - from > INSERTION_SORT_THRESHOLD) {
+            int middle = (from + to) >>> 1;
+            double pivotScore = scores[middle];
+            long pivotId = ids[middle];
+            int i = from;
+            int j = to - 1;
+            while (i <= j) {
+                while (isBefore(scores[i], ids[i], pivotScore, pivotId)) {
+                    i++;
+                }
+                while (isBefore(pivotScore, pivotId, scores[j], ids[j])) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(scores, ids, i++, j--);
+                }
+            }
+            // recurse into the smaller part and loop on the larger one, to bound the stack depth
+            if (j + 1 - from < to - i) {
+                sortByScore(scores, ids, from, j + 1);
+                from = i;
+            } else {
+                sortByScore(scores, ids, i, to);
+                to = j + 1;
+            }
+        }
+        for (int i = from + 1; i < to; i++) {
+            for (int j = i; j > from && isBefore(scores[j], ids[j], scores[j - 1], ids[j - 1]); j--) {
+                swap(scores, ids, j, j - 1);
+            }
+        }
+    }
+
+    private static boolean isBefore(double score, long id, double otherScore, long otherId) {
+        return score > otherScore || (score == otherScore && id < otherId);
+    }
+
+    private static void swap(double[] scores, long[] ids, int i, int j) {
+        double score = scores[i];
+        scores[i] = scores[j];
+        scores[j] = score;
+        long id = ids[i];
+        ids[i] = ids[j];
+        ids[j] = id;
+    }
+
+    /**
+     * A write handed over by {@link ProductService}: the term frequencies of a product, or {@code null} once deleted.
+     */
+    private record Write(long id, Map<String, Integer> frequencies) {
+        void applyTo(Terms terms) {
+            if (frequencies == null) {
+                terms.remove(id);
+            } else {
+                terms.put(id, frequencies);
+            }
+        }
+    }
+
+    /**
+     * The postings lists of every term, and the terms of every product to remove it from them.
+     */
+    private static final class Terms {
+
+        private final Map<String, Postings> postingsByTerm = new HashMap<>();
+
+        private final Map<Long, String[]> termsByProduct = new HashMap<>();
+
+        void put(long id, Map<String, Integer> frequencies) {
+            remove(id);
+            frequencies.forEach((term, frequency) -> postingsByTerm.computeIfAbsent(term, t -> new Postings()).put(id, frequency));
+            termsByProduct.put(id, frequencies.keySet().toArray(new String[0]));
+        }
+
+        void remove(long id) {
+            String[] terms = termsByProduct.remove(id);
+            if (terms == null) {
+                return;
+            }
+            for (String term : terms) {
+                Postings postings = postingsByTerm.get(term);
+                if (postings != null && postings.remove(id) && postings.size == 0) {
+                    postingsByTerm.remove(term);
+                }
+            }
+        }
+    }
+
+    /**
+     * Postings list of one term: product ids in ascending order with their weighted term frequency.
+     */
+    private static final class Postings {
+
+        private long[] ids = new long[4];
+        private int[] frequencies = new int[4];
+        private int size;
+
+        void put(long id, int frequency) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                frequencies[index] = frequency;
+                return;
+            }
+            int insertAt = -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            System.arraycopy(frequencies, insertAt, frequencies, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            frequencies[insertAt] = frequency;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            System.arraycopy(frequencies, index + 1, frequencies, index, size - index - 1);
+            size--;
+            return true;
+        }
+    }
+}
@@ -1,12 +1,25 @@
 package myapp.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import myapp.domain.Product;
 import myapp.repository.ProductRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,8 +34,22 @@ public class ProductService {
 
     private final ProductRepository productRepository;
 
-    public ProductService(ProductRepository productRepository) {
+    private final ProductSearchIndex productSearchIndex;
+
+    private final ProductPriceIndex productPriceIndex;
+
+    private final NdjsonExporter ndjsonExporter;
+
+    public ProductService(
+        ProductRepository productRepository,
+        ProductSearchIndex productSearchIndex,
+        ProductPriceIndex productPriceIndex,
+        NdjsonExporter ndjsonExporter
+    ) {
         this.productRepository = productRepository;
+        this.productSearchIndex = productSearchIndex;
+        this.productPriceIndex = productPriceIndex;
+        this.ndjsonExporter = ndjsonExporter;
     }
 
     /**
@@ -33,18 +60,43 @@ public class ProductService {
      */
     public Product save(Product product) {
         LOG.debug("Request to save Product : {}", product);
-        return productRepository.save(product);
+        Product result = productRepository.save(product);
+        productSearchIndex.indexAfterCommit(result);
+        productPriceIndex.indexAfterCommit(result);
+        return result;
     }
 
     /**
      * Update a product.
+     * <p>
+     * The version is not part of the request: the product is saved with the version the update was checked against,
+     * see {@link #findVersion(Long)}, so that it fails with an optimistic locking failure if another update has been
+     * committed since.
      *
      * @param product the entity to save.
+     * @param version the version of the stored product the update was checked against.
      * @return the persisted entity.
      */
-    public Product update(Product product) {
-        LOG.debug("Request to update Product : {}", product);
-        return productRepository.save(product);
+    public Product update(Product product, long version) {
+        LOG.debug("Request to update Product : {}, version {}", product, version);
+        product.setVersion(version);
+        Product result = productRepository.save(product);
+        productSearchIndex.indexAfterCommit(result);
+        productPriceIndex.indexAfterCommit(result);
+        return result;
+    }
+
+    /**
+     * Get the current version of a product, to check an update against.
+     * <p>
+     * Not read-only, so that it is read on the primary: a lagging read replica would fail the update.
+     *
+     * @param id the id of the entity.
+     * @return the version, or empty if the product does not exist.
+     */
+    public Optional<Long> findVersion(Long id) {
+        LOG.debug("Request to get the version of Product : {}", id);
+        return productRepository.findVersionById(id);
     }
 
     /**
@@ -95,7 +147,12 @@ public class ProductService {
 
                 return existingProduct;
             })
-            .map(productRepository::save);
+            .map(productRepository::save)
+            .map(updatedProduct -> {
+                productSearchIndex.indexAfterCommit(updatedProduct);
+                productPriceIndex.indexAfterCommit(updatedProduct);
+                return updatedProduct;
+            });
     }
 
     /**
@@ -110,6 +167,89 @@ public class ProductService {
         return productRepository.findAll(pageable);
     }
 
+    /**
+     * Search the products by title, keywords and description, best match first.
+     *
+     * @param query the free-text query.
+     * @param pageable the pagination information.
+     * @return the page of matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Page<Product> search(String query, Pageable pageable) {
+        LOG.debug("Request to search Products : {}", query);
+        return findPage(productSearchIndex.search(query), pageable);
+    }
+
+    /**
+     * Get the products within a price range, and with a minimum rating, cheapest first.
+     *
+     * @param minPrice the minimum price, inclusive, or {@code null} for no minimum.
+     * @param maxPrice the maximum price, inclusive, or {@code null} for no maximum.
+     * @param minRating the minimum rating, or {@code null} to also get the products without rating.
+     * @param pageable the pagination information, whose sort is ignored.
+     * @return the page of matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Page<Product> findByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, Integer minRating, Pageable pageable) {
+        LOG.debug("Request to get Products between {} and {}, rated {} or more", minPrice, maxPrice, minRating);
+        return findPage(productPriceIndex.search(minPrice, maxPrice, minRating), pageable);
+    }
+
+    /**
+     * Load a page of products, in the order of the given ids.
+     */
+    private Page<Product> findPage(long[] ids, Pageable pageable) {
+        int from = (int) Math.min(pageable.getOffset(), ids.length);
+        int to = Math.min(from + pageable.getPageSize(), ids.length);
+        List<Long> pageIds = Arrays.stream(ids, from, to).boxed().toList();
+        Map<Long, Product> products = productRepository
+            .findAllById(pageIds)
+            .stream()
+            .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<Product> content = pageIds.stream().map(products::get).filter(Objects::nonNull).toList();
+        return new PageImpl<>(content, pageable, ids.length);
+    }
+
+    /**
+     * Get all the products without counting them.
+     *
+     * @param pageable the pagination information.
+     * @return the slice of entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<Product> findSlice(Pageable pageable) {
+        LOG.debug("Request to get a slice of Products");
+        return productRepository.findAllBy(pageable);
+    }
+
+    /**
+     * Get the products following the given id, in id order, without counting them.
+     *
+     * @param cursor the id of the last product already read.
+     * @param size the maximum number of products to return.
+     * @return the slice of entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<Product> findAllAfter(Long cursor, int size) {
+        LOG.debug("Request to get Products after : {}", cursor);
+        return productRepository.findAllAfterId(cursor, PageRequest.of(0, size));
+    }
+
+    /**
+     * Write all the products as newline-delimited JSON, in id order.
+     *
+     * @param out the target.
+     * @return the number of products written.
+     * @throws IOException if the target cannot be written.
+     */
+    @Transactional(readOnly = true)
+    public long exportAll(OutputStream out) throws IOException {
+        LOG.debug("Request to export all Products");
+        try (Stream<Product> products = productRepository.streamAllBy()) {
+            return ndjsonExporter.write(products, out);
+        }
+    }
+
     /**
      * Get one product by id.
      *
@@ -130,5 +270,7 @@ public class ProductService {
     public void delete(Long id) {
         LOG.debug("Request to delete Product : {}", id);
         productRepository.deleteById(id);
+        productSearchIndex.removeAfterCommit(id);
+        productPriceIndex.removeAfterCommit(id);
     }
 }
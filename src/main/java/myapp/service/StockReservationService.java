@@ -0,0 +1,175 @@
+package myapp.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import myapp.config.ApplicationProperties;
+import myapp.domain.Product;
+import myapp.domain.StockReservation;
+import myapp.domain.enumeration.ReservationStatus;
+import myapp.repository.ProductRepository;
+import myapp.repository.StockReservationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service reserving {@link Product#getQuantityInStock() product stock}.
+ * <p>
+ * {@link #reserve} takes the quantity out of stock with a single conditional update, so concurrent reservations can
+ * never oversell a product. The reservation is then either {@link #commit committed} once the order is placed, or
+ * {@link #release released}, which puts the quantity back in stock. Pending reservations are released automatically
+ * after {@code application.stock-reservation.ttl}.
+ */
+@Service
+@Transactional
+public class StockReservationService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StockReservationService.class);
+
+    private static final int EXPIRY_BATCH_SIZE = 500;
+
+    private final ProductRepository productRepository;
+
+    private final StockReservationRepository stockReservationRepository;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final ApplicationProperties applicationProperties;
+
+    public StockReservationService(
+        ProductRepository productRepository,
+        StockReservationRepository stockReservationRepository,
+        EntityManagerFactory entityManagerFactory,
+        ApplicationProperties applicationProperties
+    ) {
+        this.productRepository = productRepository;
+        this.stockReservationRepository = stockReservationRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.applicationProperties = applicationProperties;
+    }
+
+    /**
+     * Reserve stock of a product.
+     *
+     * @param productId the id of the product.
+     * @param quantity the quantity to reserve.
+     * @return the pending reservation.
+     * @throws InsufficientStockException if the product does not exist, is discontinued or has less than {@code quantity} in stock.
+     */
+    public StockReservation reserve(Long productId, int quantity) {
+        LOG.debug("Request to reserve {} of Product : {}", quantity, productId);
+        takeOutOfStock(productId, quantity);
+        return stockReservationRepository.save(pendingReservation(productId, quantity, Instant.now()));
+    }
+
+    /**
+     * Reserve stock of several products.
+     * <p>
+     * The stock of every product is taken out first, in the iteration order of {@code quantities}, and the reservations
+     * are only persisted once all of them have been: no conditional update flushes a reservation ahead of it, so the
+     * reservations are inserted together, as a JDBC batch.
+     *
+     * @param quantities the quantity to reserve, by product id.
+     * @return the pending reservations.
+     * @throws InsufficientStockException if a product does not exist, is discontinued or is short of stock.
+     */
+    public List<StockReservation> reserveAll(Map<Long, Integer> quantities) {
+        LOG.debug("Request to reserve Products : {}", quantities);
+        quantities.forEach(this::takeOutOfStock);
+        Instant now = Instant.now();
+        List<StockReservation> reservations = quantities
+            .entrySet()
+            .stream()
+            .map(line -> pendingReservation(line.getKey(), line.getValue(), now))
+            .toList();
+        return stockReservationRepository.saveAll(reservations);
+    }
+
+    private void takeOutOfStock(Long productId, int quantity) {
+        if (quantity < 1) {
+            throw new IllegalArgumentException("The quantity to reserve must be positive");
+        }
+        if (productRepository.decrementStock(productId, quantity) == 0) {
+            throw new InsufficientStockException(productId, quantity);
+        }
+        evictAfterCommit(productId);
+    }
+
+    private StockReservation pendingReservation(Long productId, int quantity, Instant createdDate) {
+        return new StockReservation()
+            .product(productRepository.getReferenceById(productId))
+            .quantity(quantity)
+            .status(ReservationStatus.PENDING)
+            .createdDate(createdDate);
+    }
+
+    /**
+     * Make a pending reservation final: its quantity is definitely out of stock.
+     *
+     * @param id the id of the reservation.
+     * @return {@code false} if the reservation is unknown or not pending any more (for instance because it expired).
+     */
+    public boolean commit(Long id) {
+        LOG.debug("Request to commit StockReservation : {}", id);
+        return stockReservationRepository.transition(id, ReservationStatus.PENDING, ReservationStatus.COMMITTED) == 1;
+    }
+
+    /**
+     * Make several pending reservations final with a single statement.
+     *
+     * @param ids the ids of the reservations.
+     * @return the number of reservations committed; reservations that are unknown or not pending any more are skipped.
+     */
+    public int commitAll(Collection<Long> ids) {
+        LOG.debug("Request to commit StockReservations : {}", ids);
+        return stockReservationRepository.transitionAll(ids, ReservationStatus.PENDING, ReservationStatus.COMMITTED);
+    }
+
+    /**
+     * Cancel a pending reservation and put its quantity back in stock.
+     *
+     * @param id the id of the reservation.
+     * @return {@code false} if the reservation is unknown or not pending any more.
+     */
+    public boolean release(Long id) {
+        LOG.debug("Request to release StockReservation : {}", id);
+        StockReservation reservation = stockReservationRepository.findById(id).orElse(null);
+        // the conditional transition guarantees the quantity is put back once, whatever the number of callers
+        if (reservation == null || stockReservationRepository.transition(id, ReservationStatus.PENDING, ReservationStatus.RELEASED) == 0) {
+            return false;
+        }
+        Long productId = reservation.getProduct().getId();
+        productRepository.incrementStock(productId, reservation.getQuantity());
+        evictAfterCommit(productId);
+        return true;
+    }
+
+    /**
+     * Pending reservations are released once they are older than {@code application.stock-reservation.ttl}.
+     * <p>
+     * This is scheduled to get fired every minute.
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void releaseExpiredReservations() {
+        Instant before = Instant.now().minus(applicationProperties.getStockReservation().getTtl());
+        List<Long> expired = stockReservationRepository.findIdsByStatusAndCreatedDateBefore(
+            ReservationStatus.PENDING,
+            before,
+            PageRequest.of(0, EXPIRY_BATCH_SIZE)
+        );
+        expired.forEach(this::release);
+        if (!expired.isEmpty()) {
+            LOG.debug("Released {} expired stock reservations", expired.size());
+        }
+    }
+
+    private void evictAfterCommit(Long productId) {
+        AfterCommit.run(() -> entityManagerFactory.getCache().evict(Product.class, productId));
+    }
+}
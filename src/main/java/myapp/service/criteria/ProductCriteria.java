@@ -0,0 +1,245 @@
+package myapp.service.criteria;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.Optional;
+import myapp.domain.enumeration.ProductStatus;
+import org.springdoc.core.annotations.ParameterObject;
+import tech.jhipster.service.Criteria;
+import tech.jhipster.service.filter.*;
+
+/**
+ * Criteria class for the {@link myapp.domain.Product} entity. This class is used
+ * in {@link myapp.web.rest.ProductResource} to receive all the possible filtering options from
+ * the Http GET request parameters.
+ * For example the following could be a valid request:
+ * {@code /products?status.in=IN_STOCK&price.greaterThan=10&rating.greaterThanOrEqual=4&categoryId.in=1051,1052}
+ * As Spring is unable to properly convert the types, unless specific {@link Filter} class are used, we need to use
+ * fix type specific filters.
+ */
+@ParameterObject
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class ProductCriteria implements Serializable, Criteria {
+
+    /**
+     * Class for filtering ProductStatus
+     */
+    public static class ProductStatusFilter extends Filter<ProductStatus> {
+
+        public ProductStatusFilter() {}
+
+        public ProductStatusFilter(ProductStatusFilter filter) {
+            super(filter);
+        }
+
+        @Override
+        public ProductStatusFilter copy() {
+            return new ProductStatusFilter(this);
+        }
+    }
+
+    private static final long serialVersionUID = 1L;
+
+    private LongFilter id;
+
+    private ProductStatusFilter status;
+
+    private BigDecimalFilter price;
+
+    private IntegerFilter rating;
+
+    private InstantFilter dateAdded;
+
+    private LongFilter categoryId;
+
+    private Boolean distinct;
+
+    public ProductCriteria() {}
+
+    public ProductCriteria(ProductCriteria other) {
+        this.id = other.optionalId().map(LongFilter::copy).orElse(null);
+        this.status = other.optionalStatus().map(ProductStatusFilter::copy).orElse(null);
+        this.price = other.optionalPrice().map(BigDecimalFilter::copy).orElse(null);
+        this.rating = other.optionalRating().map(IntegerFilter::copy).orElse(null);
+        this.dateAdded = other.optionalDateAdded().map(InstantFilter::copy).orElse(null);
+        this.categoryId = other.optionalCategoryId().map(LongFilter::copy).orElse(null);
+        this.distinct = other.distinct;
+    }
+
+    @Override
+    public ProductCriteria copy() {
+        return new ProductCriteria(this);
+    }
+
+    public LongFilter getId() {
+        return id;
+    }
+
+    public Optional<LongFilter> optionalId() {
+        return Optional.ofNullable(id);
+    }
+
+    public LongFilter id() {
+        if (id == null) {
+            setId(new LongFilter());
+        }
+        return id;
+    }
+
+    public void setId(LongFilter id) {
+        this.id = id;
+    }
+
+    public ProductStatusFilter getStatus() {
+        return status;
+    }
+
+    public Optional<ProductStatusFilter> optionalStatus() {
+        return Optional.ofNullable(status);
+    }
+
+    public ProductStatusFilter status() {
+        if (status == null) {
+            setStatus(new ProductStatusFilter());
+        }
+        return status;
+    }
+
+    public void setStatus(ProductStatusFilter status) {
+        this.status = status;
+    }
+
+    public BigDecimalFilter getPrice() {
+        return price;
+    }
+
+    public Optional<BigDecimalFilter> optionalPrice() {
+        return Optional.ofNullable(price);
+    }
+
+    public BigDecimalFilter price() {
+        if (price == null) {
+            setPrice(new BigDecimalFilter());
+        }
+        return price;
+    }
+
+    public void setPrice(BigDecimalFilter price) {
+        this.price = price;
+    }
+
+    public IntegerFilter getRating() {
+        return rating;
+    }
+
+    public Optional<IntegerFilter> optionalRating() {
+        return Optional.ofNullable(rating);
+    }
+
+    public IntegerFilter rating() {
+        if (rating == null) {
+            setRating(new IntegerFilter());
+        }
+        return rating;
+    }
+
+    public void setRating(IntegerFilter rating) {
+        this.rating = rating;
+    }
+
+    public InstantFilter getDateAdded() {
+        return dateAdded;
+    }
+
+    public Optional<InstantFilter> optionalDateAdded() {
+        return Optional.ofNullable(dateAdded);
+    }
+
+    public InstantFilter dateAdded() {
+        if (dateAdded == null) {
+            setDateAdded(new InstantFilter());
+        }
+        return dateAdded;
+    }
+
+    public void setDateAdded(InstantFilter dateAdded) {
+        this.dateAdded = dateAdded;
+    }
+
+    public LongFilter getCategoryId() {
+        return categoryId;
+    }
+
+    public Optional<LongFilter> optionalCategoryId() {
+        return Optional.ofNullable(categoryId);
+    }
+
+    public LongFilter categoryId() {
+        if (categoryId == null) {
+            setCategoryId(new LongFilter());
+        }
+        return categoryId;
+    }
+
+    public void setCategoryId(LongFilter categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public Boolean getDistinct() {
+        return distinct;
+    }
+
+    public Optional<Boolean> optionalDistinct() {
+        return Optional.ofNullable(distinct);
+    }
+
+    public Boolean distinct() {
+        if (distinct == null) {
+            setDistinct(true);
+        }
+        return distinct;
+    }
+
+    public void setDistinct(Boolean distinct) {
+        this.distinct = distinct;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final ProductCriteria that = (ProductCriteria) o;
+        return (
+            Objects.equals(id, that.id) &&
+            Objects.equals(status, that.status) &&
+            Objects.equals(price, that.price) &&
+            Objects.equals(rating, that.rating) &&
+            Objects.equals(dateAdded, that.dateAdded) &&
+            Objects.equals(categoryId, that.categoryId) &&
+            Objects.equals(distinct, that.distinct)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, status, price, rating, dateAdded, categoryId, distinct);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ProductCriteria{" +
+            optionalId().map(f -> "id=" + f + ", ").orElse("") +
+            optionalStatus().map(f -> "status=" + f + ", ").orElse("") +
+            optionalPrice().map(f -> "price=" + f + ", ").orElse("") +
+            optionalRating().map(f -> "rating=" + f + ", ").orElse("") +
+            optionalDateAdded().map(f -> "dateAdded=" + f + ", ").orElse("") +
+            optionalCategoryId().map(f -> "categoryId=" + f + ", ").orElse("") +
+            optionalDistinct().map(f -> "distinct=" + f + ", ").orElse("") +
+        "}";
+    }
+}
@@ -0,0 +1,58 @@
+package myapp.service.dto;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import myapp.domain.enumeration.ProductStatus;
+
+/**
+ * A DTO counting the products matching a filter, per status, per rating and per category.
+ * <p>
+ * Each facet is counted without its own filter, so that the other values of a filtered field can still be offered:
+ * the status counts ignore {@code status.*}, the rating counts {@code rating.*} and the category counts
+ * {@code categoryId.*}. Products without a rating are not counted in the rating facet.
+ */
+public class ProductFacetsDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Map<ProductStatus, Long> status = new LinkedHashMap<>();
+
+    private Map<Integer, Long> rating = new LinkedHashMap<>();
+
+    private Map<Long, Long> categoryId = new LinkedHashMap<>();
+
+    public Map<ProductStatus, Long> getStatus() {
+        return status;
+    }
+
+    public void setStatus(Map<ProductStatus, Long> status) {
+        this.status = status;
+    }
+
+    public Map<Integer, Long> getRating() {
+        return rating;
+    }
+
+    public void setRating(Map<Integer, Long> rating) {
+        this.rating = rating;
+    }
+
+    public Map<Long, Long> getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Map<Long, Long> categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ProductFacetsDTO{" +
+            "status=" + status +
+            ", rating=" + rating +
+            ", categoryId=" + categoryId +
+            "}";
+    }
+}
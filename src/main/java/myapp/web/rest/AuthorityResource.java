@@ -61,6 +61,9 @@ public class AuthorityResource {
 
     /**
      * {@code GET  /authorities} : get all the authorities.
+     * <p>
+     * Deliberately not paginated: authorities are a handful of role names, only created by administrators, and the user
+     * management form needs all of them to offer every role.
      *
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of authorities in body.
      */
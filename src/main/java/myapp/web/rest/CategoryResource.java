@@ -4,21 +4,27 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import myapp.domain.Category;
+import myapp.domain.Product;
 import myapp.repository.CategoryRepository;
 import myapp.service.CategoryService;
 import myapp.web.rest.errors.BadRequestAlertException;
+import myapp.web.rest.util.ETagUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
@@ -68,17 +74,24 @@ public class CategoryResource {
 
     /**
      * {@code PUT  /categories/:id} : Updates an existing category.
+     * <p>
+     * With an {@code If-Match} header, the category is only updated if it still has that ETag, as read from
+     * {@code GET /categories/:id}. Without one, the update replaces whatever is stored.
      *
      * @param id the id of the category to save.
+     * @param ifMatch the ETag the category is expected to have.
      * @param category the category to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated category,
      * or with status {@code 400 (Bad Request)} if the category is not valid,
+     * or with status {@code 409 (Conflict)} if the category has been updated since the {@code If-Match} check,
+     * or with status {@code 412 (Precondition Failed)} if the category no longer has the {@code If-Match} ETag,
      * or with status {@code 500 (Internal Server Error)} if the category couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
     public ResponseEntity<Category> updateCategory(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody Category category
     ) throws URISyntaxException {
         LOG.debug("REST request to update Category : {}, {}", id, category);
@@ -89,11 +102,14 @@ public class CategoryResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!categoryRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        CategoryRepository.ContentVersion version = categoryService
+            .findCurrentContentVersion(id)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        if (!ETagUtil.matches(ifMatch, ETagUtil.versionTag(version.getVersion(), version.getProductCount(), version.getProductVersions()))) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED);
         }
 
-        category = categoryService.update(category);
+        category = categoryService.update(category, version.getVersion());
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, category.getId().toString()))
             .body(category);
@@ -140,7 +156,8 @@ public class CategoryResource {
      *
      * @param pageable the pagination information.
      * @param eagerload flag to eager load entities from relationships (This is applicable for many-to-many).
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of categories in body.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of categories in body,
+     * or with status {@code 304 (Not Modified)} if they match the {@code If-None-Match} header.
      */
     @GetMapping("")
     public ResponseEntity<List<Category>> getAllCategories(
@@ -155,22 +172,69 @@ public class CategoryResource {
             page = categoryService.findAll(pageable);
         }
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+        ETagUtil.Fingerprint fingerprint = ETagUtil.fingerprint().add(page.getTotalElements());
+        page.forEach(category -> {
+            fingerprint.add(category.getId()).add(category.getVersion());
+            if (eagerload) {
+                fingerprint.add(category.getProducts().size());
+                category
+                    .getProducts()
+                    .stream()
+                    .sorted(Comparator.comparing(Product::getId))
+                    .forEach(product -> fingerprint.add(product.getId()).add(product.getVersion()));
+            }
+        });
+        return ResponseEntity.ok().headers(headers).eTag(fingerprint.toETag()).body(page.getContent());
     }
 
     /**
      * {@code GET  /categories/:id} : get the "id" category.
+     * <p>
+     * The ETag is derived from the versions of the category and of its products, which are read first, so that a
+     * matching {@code If-None-Match} header is answered without loading the category.
      *
      * @param id the id of the category to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the category, or with status {@code 404 (Not Found)}.
+     * @param webRequest the current request, to check its {@code If-None-Match} header.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the category,
+     * or with status {@code 304 (Not Modified)} if it matches the {@code If-None-Match} header,
+     * or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Category> getCategory(@PathVariable("id") Long id) {
+    public ResponseEntity<Category> getCategory(@PathVariable("id") Long id, WebRequest webRequest) {
         LOG.debug("REST request to get Category : {}", id);
+        Optional<CategoryRepository.ContentVersion> contentVersion = categoryService.findContentVersion(id);
+        if (contentVersion.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        CategoryRepository.ContentVersion version = contentVersion.orElseThrow();
+        if (webRequest.checkNotModified(ETagUtil.versionTag(version.getVersion(), version.getProductCount(), version.getProductVersions()))) {
+            return null;
+        }
+        // the ETag header was set by checkNotModified
         Optional<Category> category = categoryService.findOne(id);
         return ResponseUtil.wrapOrNotFound(category);
     }
 
+    /**
+     * {@code GET  /categories/:id/subtree-products} : get the products of the "id" category and of all its descendants.
+     *
+     * @param id the id of the root category.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of products in body, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/{id}/subtree-products")
+    public ResponseEntity<List<Product>> getSubtreeProducts(
+        @PathVariable("id") Long id,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to get a page of Products under Category : {}", id);
+        Page<Product> page = categoryService
+            .findSubtreeProducts(id, pageable)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
     /**
      * {@code DELETE  /categories/:id} : delete the "id" category.
      *
@@ -8,14 +8,18 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import myapp.domain.Customer;
+import myapp.domain.WishList;
 import myapp.repository.CustomerRepository;
+import myapp.repository.WishListRepository;
 import myapp.service.CustomerService;
 import myapp.web.rest.errors.BadRequestAlertException;
+import myapp.web.rest.util.SlicePaginationUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -42,9 +46,16 @@ public class CustomerResource {
 
     private final CustomerRepository customerRepository;
 
-    public CustomerResource(CustomerService customerService, CustomerRepository customerRepository) {
+    private final WishListRepository wishListRepository;
+
+    public CustomerResource(
+        CustomerService customerService,
+        CustomerRepository customerRepository,
+        WishListRepository wishListRepository
+    ) {
         this.customerService = customerService;
         this.customerRepository = customerRepository;
+        this.wishListRepository = wishListRepository;
     }
 
     /**
@@ -137,12 +148,38 @@ public class CustomerResource {
 
     /**
      * {@code GET  /customers} : get all the customers.
+     * <p>
+     * With {@code after} the customers are returned in id order, starting after the given id (keyset pagination);
+     * the next cursor is sent in the {@code Link} and {@code X-Next-Cursor} headers. With {@code count=false}
+     * the total count query is skipped and no {@code X-Total-Count} header is sent.
      *
      * @param pageable the pagination information.
+     * @param after the id of the last customer already read, to switch to keyset pagination.
+     * @param count flag to compute the total count of customers.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of customers in body.
      */
     @GetMapping("")
-    public ResponseEntity<List<Customer>> getAllCustomers(@org.springdoc.core.annotations.ParameterObject Pageable pageable) {
+    public ResponseEntity<List<Customer>> getAllCustomers(
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        @RequestParam(name = "after", required = false) Long after,
+        @RequestParam(name = "count", required = false, defaultValue = "true") boolean count
+    ) {
+        if (after != null) {
+            LOG.debug("REST request to get Customers after : {}", after);
+            Slice<Customer> slice = customerService.findAllAfter(after, pageable.getPageSize());
+            HttpHeaders headers = SlicePaginationUtil.generateCursorHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                slice,
+                Customer::getId
+            );
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
+        if (!count) {
+            LOG.debug("REST request to get a slice of Customers");
+            Slice<Customer> slice = customerService.findSlice(pageable);
+            HttpHeaders headers = SlicePaginationUtil.generateSliceHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), slice);
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
         LOG.debug("REST request to get a page of Customers");
         Page<Customer> page = customerService.findAll(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
@@ -162,6 +199,27 @@ public class CustomerResource {
         return ResponseUtil.wrapOrNotFound(customer);
     }
 
+    /**
+     * {@code GET  /customers/:id/wish-lists} : get the wishLists of the "id" customer.
+     *
+     * @param id the id of the customer.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of wishLists in body, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/{id}/wish-lists")
+    public ResponseEntity<List<WishList>> getCustomerWishLists(
+        @PathVariable("id") Long id,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to get a page of WishLists of Customer : {}", id);
+        if (!customerRepository.existsById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        Page<WishList> page = wishListRepository.findAllByCustomerId(id, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
     /**
      * {@code DELETE  /customers/:id} : delete the "id" customer.
      *
@@ -4,21 +4,29 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.Instant;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import myapp.domain.Order;
+import myapp.repository.AddressRepository;
 import myapp.repository.OrderRepository;
+import myapp.service.OrderPlacementService;
 import myapp.service.OrderService;
+import myapp.service.dto.CartDTO;
 import myapp.web.rest.errors.BadRequestAlertException;
+import myapp.web.rest.util.SlicePaginationUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
@@ -42,9 +50,20 @@ public class OrderResource {
 
     private final OrderRepository orderRepository;
 
-    public OrderResource(OrderService orderService, OrderRepository orderRepository) {
+    private final OrderPlacementService orderPlacementService;
+
+    private final AddressRepository addressRepository;
+
+    public OrderResource(
+        OrderService orderService,
+        OrderRepository orderRepository,
+        OrderPlacementService orderPlacementService,
+        AddressRepository addressRepository
+    ) {
         this.orderService = orderService;
         this.orderRepository = orderRepository;
+        this.orderPlacementService = orderPlacementService;
+        this.addressRepository = addressRepository;
     }
 
     /**
@@ -66,6 +85,29 @@ public class OrderResource {
             .body(order);
     }
 
+    /**
+     * {@code POST  /orders/_place} : Place a new order from a cart.
+     * <p>
+     * The stock of the products is reserved, the total amount and shipping cost are computed from the current prices,
+     * and the products and shipping address are linked to the order, all in one transaction.
+     *
+     * @param cart the cart to check out.
+     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new order,
+     * or with status {@code 400 (Bad Request)} if the shipping address does not exist or a product is short of stock.
+     * @throws URISyntaxException if the Location URI syntax is incorrect.
+     */
+    @PostMapping("/_place")
+    public ResponseEntity<Order> placeOrder(@Valid @RequestBody CartDTO cart) throws URISyntaxException {
+        LOG.debug("REST request to place Order : {}", cart);
+        if (!addressRepository.existsById(cart.getShippingAddressId())) {
+            throw new BadRequestAlertException("Shipping address not found", ENTITY_NAME, "addressnotfound");
+        }
+        Order order = orderPlacementService.place(cart);
+        return ResponseEntity.created(new URI("/api/orders/" + order.getId()))
+            .headers(HeaderUtil.createEntityCreationAlert(applicationName, false, ENTITY_NAME, order.getId().toString()))
+            .body(order);
+    }
+
     /**
      * {@code PUT  /orders/:id} : Updates an existing order.
      *
@@ -135,18 +177,63 @@ public class OrderResource {
 
     /**
      * {@code GET  /orders} : get all the orders.
+     * <p>
+     * Only the orders placed from {@code from} (by default, the last few months) to {@code to} are returned. With
+     * {@code after} they are returned in id order, starting after the given id (keyset pagination); the next cursor is
+     * sent in the {@code Link} and {@code X-Next-Cursor} headers. With {@code count=false} the total count query is
+     * skipped and no {@code X-Total-Count} header is sent.
      *
      * @param pageable the pagination information.
+     * @param after the id of the last order already read, to switch to keyset pagination.
+     * @param count flag to compute the total count of orders.
+     * @param from the start of the order date window, inclusive.
+     * @param to the end of the order date window, exclusive.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of orders in body.
      */
     @GetMapping("")
-    public ResponseEntity<List<Order>> getAllOrders(@org.springdoc.core.annotations.ParameterObject Pageable pageable) {
+    public ResponseEntity<List<Order>> getAllOrders(
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        @RequestParam(name = "after", required = false) Long after,
+        @RequestParam(name = "count", required = false, defaultValue = "true") boolean count,
+        @RequestParam(name = "from", required = false) Instant from,
+        @RequestParam(name = "to", required = false) Instant to
+    ) {
+        if (after != null) {
+            LOG.debug("REST request to get Orders after : {}", after);
+            Slice<Order> slice = orderService.findAllAfter(after, from, to, pageable.getPageSize());
+            HttpHeaders headers = SlicePaginationUtil.generateCursorHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                slice,
+                Order::getId
+            );
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
+        if (!count) {
+            LOG.debug("REST request to get a slice of Orders");
+            Slice<Order> slice = orderService.findSlice(from, to, pageable);
+            HttpHeaders headers = SlicePaginationUtil.generateSliceHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), slice);
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
         LOG.debug("REST request to get a page of Orders");
-        Page<Order> page = orderService.findAll(pageable);
+        Page<Order> page = orderService.findAll(from, to, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code GET  /orders/_export} : export all the orders as newline-delimited JSON, in id order.
+     * <p>
+     * The orders are streamed from the database as the response is written, with constant memory.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the orders, one per line, in body.
+     */
+    @GetMapping(value = "/_export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportOrders() {
+        LOG.debug("REST request to export all Orders");
+        StreamingResponseBody body = orderService::exportAll;
+        return ResponseEntity.ok().contentType(MediaType.valueOf("application/x-ndjson")).body(body);
+    }
+
     /**
      * {@code GET  /orders/:id} : get the "id" order.
      *
@@ -2,23 +2,42 @@ package myapp.web.rest;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.net.URI;
+import java.math.BigDecimal;
 import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import myapp.domain.Product;
 import myapp.repository.ProductRepository;
+import myapp.service.ProductImportService;
+import myapp.service.ProductQueryService;
 import myapp.service.ProductService;
+import myapp.service.criteria.ProductCriteria;
+import myapp.service.dto.ProductFacetsDTO;
+import myapp.service.dto.ProductImportReportDTO;
 import myapp.web.rest.errors.BadRequestAlertException;
+import myapp.web.rest.util.ETagUtil;
+import myapp.web.rest.util.SlicePaginationUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
@@ -35,6 +54,8 @@ public class ProductResource {
 
     private static final String ENTITY_NAME = "product";
 
+    private static final ProductCriteria NO_CRITERIA = new ProductCriteria();
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -42,9 +63,20 @@ public class ProductResource {
 
     private final ProductRepository productRepository;
 
-    public ProductResource(ProductService productService, ProductRepository productRepository) {
+    private final ProductImportService productImportService;
+
+    private final ProductQueryService productQueryService;
+
+    public ProductResource(
+        ProductService productService,
+        ProductRepository productRepository,
+        ProductImportService productImportService,
+        ProductQueryService productQueryService
+    ) {
         this.productService = productService;
         this.productRepository = productRepository;
+        this.productImportService = productImportService;
+        this.productQueryService = productQueryService;
     }
 
     /**
@@ -66,19 +98,52 @@ public class ProductResource {
             .body(product);
     }
 
+    /**
+     * {@code POST  /products/_bulk} : Import products from newline-delimited JSON or from CSV.
+     * <p>
+     * The body is streamed: rows are validated and inserted as they are read. Invalid rows are skipped and reported,
+     * they do not prevent the valid ones from being imported.
+     *
+     * @param contentType {@code application/x-ndjson} or {@code text/csv}, with an optional charset (UTF-8 by default).
+     * @param body the products to import.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the import report.
+     * @throws IOException if the body cannot be read.
+     */
+    @PostMapping(value = "/_bulk", consumes = { "application/x-ndjson", "text/csv" })
+    public ResponseEntity<ProductImportReportDTO> importProducts(
+        @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+        InputStream body
+    ) throws IOException {
+        LOG.debug("REST request to import Products : {}", contentType);
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+        try (Reader reader = new InputStreamReader(body, charset)) {
+            ProductImportReportDTO report = MediaType.valueOf("text/csv").includes(contentType)
+                ? productImportService.importCsv(reader)
+                : productImportService.importNdjson(reader);
+            return ResponseEntity.ok(report);
+        }
+    }
+
     /**
      * {@code PUT  /products/:id} : Updates an existing product.
+     * <p>
+     * With an {@code If-Match} header, the product is only updated if it still has that ETag, as read from
+     * {@code GET /products/:id}. Without one, the update replaces whatever is stored.
      *
      * @param id the id of the product to save.
+     * @param ifMatch the ETag the product is expected to have.
      * @param product the product to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated product,
      * or with status {@code 400 (Bad Request)} if the product is not valid,
+     * or with status {@code 409 (Conflict)} if the product has been updated since the {@code If-Match} check,
+     * or with status {@code 412 (Precondition Failed)} if the product no longer has the {@code If-Match} ETag,
      * or with status {@code 500 (Internal Server Error)} if the product couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/{id}")
     public ResponseEntity<Product> updateProduct(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody Product product
     ) throws URISyntaxException {
         LOG.debug("REST request to update Product : {}, {}", id, product);
@@ -89,11 +154,14 @@ public class ProductResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!productRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        Long version = productService
+            .findVersion(id)
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        if (!ETagUtil.matches(ifMatch, ETagUtil.versionTag(version))) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED);
         }
 
-        product = productService.update(product);
+        product = productService.update(product, version);
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, product.getId().toString()))
             .body(product);
@@ -137,29 +205,165 @@ public class ProductResource {
 
     /**
      * {@code GET  /products} : get all the products.
+     * <p>
+     * With {@code after} the products are returned in id order, starting after the given id (keyset pagination);
+     * the next cursor is sent in the {@code Link} and {@code X-Next-Cursor} headers. With {@code count=false}
+     * the total count query is skipped and no {@code X-Total-Count} header is sent.
+     * <p>
+     * With filters, such as {@code status.in=IN_STOCK&price.lessThan=20}, a page of the matching products is returned:
+     * {@code after} and {@code count} are ignored.
+     * <p>
+     * The ETag is a fingerprint of the ids and versions of the products returned, and of the pagination headers.
      *
      * @param pageable the pagination information.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of products in body.
+     * @param criteria the criteria which the requested entities should match.
+     * @param after the id of the last product already read, to switch to keyset pagination.
+     * @param count flag to compute the total count of products.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of products in body,
+     * or with status {@code 304 (Not Modified)} if they match the {@code If-None-Match} header.
      */
     @GetMapping("")
-    public ResponseEntity<List<Product>> getAllProducts(@org.springdoc.core.annotations.ParameterObject Pageable pageable) {
+    public ResponseEntity<List<Product>> getAllProducts(
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable,
+        ProductCriteria criteria,
+        @RequestParam(name = "after", required = false) Long after,
+        @RequestParam(name = "count", required = false, defaultValue = "true") boolean count
+    ) {
+        if (!NO_CRITERIA.equals(criteria)) {
+            LOG.debug("REST request to get Products by criteria: {}", criteria);
+            Page<Product> page = productQueryService.findByCriteria(criteria, pageable);
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+            String eTag = fingerprint(page).add(page.getTotalElements()).toETag();
+            return ResponseEntity.ok().headers(headers).eTag(eTag).body(page.getContent());
+        }
+        if (after != null) {
+            LOG.debug("REST request to get Products after : {}", after);
+            Slice<Product> slice = productService.findAllAfter(after, pageable.getPageSize());
+            HttpHeaders headers = SlicePaginationUtil.generateCursorHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                slice,
+                Product::getId
+            );
+            return ResponseEntity.ok().headers(headers).eTag(fingerprint(slice).toETag()).body(slice.getContent());
+        }
+        if (!count) {
+            LOG.debug("REST request to get a slice of Products");
+            Slice<Product> slice = productService.findSlice(pageable);
+            HttpHeaders headers = SlicePaginationUtil.generateSliceHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), slice);
+            return ResponseEntity.ok().headers(headers).eTag(fingerprint(slice).toETag()).body(slice.getContent());
+        }
         LOG.debug("REST request to get a page of Products");
         Page<Product> page = productService.findAll(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        String eTag = fingerprint(page).add(page.getTotalElements()).toETag();
+        return ResponseEntity.ok().headers(headers).eTag(eTag).body(page.getContent());
+    }
+
+    private static ETagUtil.Fingerprint fingerprint(Slice<Product> slice) {
+        ETagUtil.Fingerprint fingerprint = ETagUtil.fingerprint().add(slice.hasNext() ? 1 : 0);
+        slice.forEach(product -> fingerprint.add(product.getId()).add(product.getVersion()));
+        return fingerprint;
+    }
+
+    /**
+     * {@code GET  /products/count} : count all the products.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the count in body.
+     */
+    @GetMapping("/count")
+    public ResponseEntity<Long> countProducts(ProductCriteria criteria) {
+        LOG.debug("REST request to count Products by criteria: {}", criteria);
+        return ResponseEntity.ok().body(productQueryService.countByCriteria(criteria));
+    }
+
+    /**
+     * {@code GET  /products/_facets} : count the products per status, per rating and per category.
+     * <p>
+     * Each facet is counted among the products matching the other filters, see {@link ProductFacetsDTO}.
+     *
+     * @param criteria the criteria which the counted entities should match.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the facets in body.
+     */
+    @GetMapping("/_facets")
+    public ResponseEntity<ProductFacetsDTO> getProductFacets(ProductCriteria criteria) {
+        LOG.debug("REST request to get the facets of Products by criteria: {}", criteria);
+        return ResponseEntity.ok().body(productQueryService.findFacetsByCriteria(criteria));
+    }
+
+    /**
+     * {@code GET  /products/_search?q=:query} : search the products by title, keywords and description.
+     *
+     * @param query the free-text query.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the ranked list of matching products in body.
+     */
+    @GetMapping("/_search")
+    public ResponseEntity<List<Product>> searchProducts(
+        @RequestParam("q") String query,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to search a page of Products : {}", query);
+        Page<Product> page = productService.search(query, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /products/_price-range?minPrice=:minPrice&maxPrice=:maxPrice&minRating=:minRating} : get the products
+     * within a price range, and with a minimum rating, cheapest first.
+     * <p>
+     * The range is looked up in memory, see {@link myapp.service.ProductPriceIndex}: only the products of the page are
+     * read from the database.
+     *
+     * @param minPrice the minimum price, inclusive.
+     * @param maxPrice the maximum price, inclusive.
+     * @param minRating the minimum rating; without it, the products without rating are also returned.
+     * @param pageable the pagination information, whose sort is ignored.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of matching products in body.
+     */
+    @GetMapping("/_price-range")
+    public ResponseEntity<List<Product>> getProductsByPriceRange(
+        @RequestParam(name = "minPrice", required = false) BigDecimal minPrice,
+        @RequestParam(name = "maxPrice", required = false) BigDecimal maxPrice,
+        @RequestParam(name = "minRating", required = false) Integer minRating,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to get a page of Products between {} and {}, rated {} or more", minPrice, maxPrice, minRating);
+        Page<Product> page = productService.findByPriceRange(minPrice, maxPrice, minRating, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code GET  /products/_export} : export all the products as newline-delimited JSON, in id order.
+     * <p>
+     * The products are streamed from the database as the response is written, with constant memory.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the products, one per line, in body.
+     */
+    @GetMapping(value = "/_export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        LOG.debug("REST request to export all Products");
+        StreamingResponseBody body = productService::exportAll;
+        return ResponseEntity.ok().contentType(MediaType.valueOf("application/x-ndjson")).body(body);
+    }
+
     /**
      * {@code GET  /products/:id} : get the "id" product.
      *
      * @param id the id of the product to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the product, or with status {@code 404 (Not Found)}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the product,
+     * or with status {@code 304 (Not Modified)} if its version matches the {@code If-None-Match} header,
+     * or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
     public ResponseEntity<Product> getProduct(@PathVariable("id") Long id) {
         LOG.debug("REST request to get Product : {}", id);
         Optional<Product> product = productService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(product);
+        HttpHeaders headers = new HttpHeaders();
+        product.ifPresent(p -> headers.setETag(ETagUtil.versionTag(p.getVersion())));
+        return ResponseUtil.wrapOrNotFound(product, headers);
     }
 
     /**
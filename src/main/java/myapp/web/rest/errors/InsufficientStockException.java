@@ -0,0 +1,11 @@
+package myapp.web.rest.errors;
+
+@SuppressWarnings("java:S110") // Inheritance tree of classes should not be too deep
+public class InsufficientStockException extends BadRequestAlertException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InsufficientStockException() {
+        super(ErrorConstants.INSUFFICIENT_STOCK_TYPE, "Insufficient stock!", "product", "insufficientstock");
+    }
+}
@@ -0,0 +1,98 @@
+package myapp.web.rest.util;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.StringJoiner;
+
+/**
+ * Utility class for building strong ETags from entity versions, so that conditional requests are answered without
+ * serializing the entities.
+ * <p>
+ * Returned in a {@link org.springframework.http.ResponseEntity}, an ETag matching the {@code If-None-Match} request
+ * header turns a {@code GET} into a {@code 304 (Not Modified)} with no body.
+ */
+public final class ETagUtil {
+
+    private ETagUtil() {}
+
+    /**
+     * Build the ETag of a single resource from the versions its representation depends on.
+     *
+     * @param versions the versions, such as the one of the entity.
+     * @return the ETag, such as {@code "3"} or {@code "3-12-40"}.
+     */
+    public static String versionTag(long... versions) {
+        StringJoiner tag = new StringJoiner("-", "\"", "\"");
+        for (long version : versions) {
+            tag.add(Long.toString(version));
+        }
+        return tag.toString();
+    }
+
+    /**
+     * Check the {@code If-Match} header of an update against the current ETag of the resource, with the strong
+     * comparison: a weak ETag never matches.
+     *
+     * @param ifMatch the header, or {@code null} if the request has none.
+     * @param eTag the current ETag of the resource.
+     * @return whether the update may proceed: without header, with {@code *}, or with the current ETag among those listed.
+     */
+    public static boolean matches(String ifMatch, String eTag) {
+        if (ifMatch == null) {
+            return true;
+        }
+        for (String tag : ifMatch.split(",")) {
+            String trimmed = tag.trim();
+            if (trimmed.equals("*") || trimmed.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Start the fingerprint of a collection of resources, such as a page.
+     *
+     * @return an empty fingerprint.
+     */
+    public static Fingerprint fingerprint() {
+        return new Fingerprint();
+    }
+
+    /**
+     * A digest of the ids and versions of a collection, and of anything else its representation depends on, such as the
+     * total count.
+     */
+    public static final class Fingerprint {
+
+        private final MessageDigest digest;
+
+        private final ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+
+        private Fingerprint() {
+            try {
+                digest = MessageDigest.getInstance("MD5");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        public Fingerprint add(long value) {
+            digest.update(buffer.clear().putLong(value).array());
+            return this;
+        }
+
+        public Fingerprint add(Long value) {
+            return add(value == null ? Long.MIN_VALUE : value);
+        }
+
+        /**
+         * @return the ETag of the collection.
+         */
+        public String toETag() {
+            return "\"" + HexFormat.of().formatHex(digest.digest()) + "\"";
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package myapp.web.rest.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.util.Arrays;
+import myapp.web.rest.errors.BadRequestAlertException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Refuses requests for pages larger than the configured maximum.
+ * <p>
+ * Spring Data silently caps the page size at {@code spring.data.web.pageable.max-page-size}, so a client asking for
+ * {@code size=1000000} gets a truncated page and no hint that it did. This guard answers {@code 400 (Bad Request)}
+ * instead, for every handler taking a {@link Pageable}. The only list endpoint without one,
+ * {@link myapp.web.rest.AuthorityResource#getAllAuthorities()}, returns a table of a few role names.
+ */
+public class PageSizeGuard implements HandlerInterceptor {
+
+    private final String sizeParameter;
+
+    private final int maxPageSize;
+
+    public PageSizeGuard(String sizeParameter, int maxPageSize) {
+        this.sizeParameter = sizeParameter;
+        this.maxPageSize = maxPageSize;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod && isPaginated(handlerMethod)) {
+            String size = request.getParameter(sizeParameter);
+            if (size != null && isTooLarge(size)) {
+                throw new BadRequestAlertException(
+                    "The page size cannot be larger than " + maxPageSize,
+                    "pagination",
+                    "pagesizetoolarge"
+                );
+            }
+        }
+        return true;
+    }
+
+    private boolean isTooLarge(String size) {
+        try {
+            return Long.parseLong(size.strip()) > maxPageSize;
+        } catch (NumberFormatException e) {
+            // left to the pageable resolver, which falls back to the default page size
+            return false;
+        }
+    }
+
+    private static boolean isPaginated(HandlerMethod handlerMethod) {
+        return Arrays.stream(handlerMethod.getMethodParameters()).anyMatch(parameter ->
+            Pageable.class.isAssignableFrom(parameter.getParameterType())
+        );
+    }
+}
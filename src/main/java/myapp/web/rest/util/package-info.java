@@ -0,0 +1,4 @@
+/**
+ * Rest layer utilities.
+ */
+package myapp.web.rest.util;
@@ -120,6 +120,25 @@ describe('Order Management Component', () => {
     expect(routerNavigateSpy).toHaveBeenCalled();
   });
 
+  it('should go back to the first page with the order date window', () => {
+    // GIVEN
+    comp.from = '2024-01-01';
+
+    // WHEN
+    comp.navigateToFrom();
+
+    // THEN
+    expect(routerNavigateSpy).toHaveBeenLastCalledWith(
+      expect.anything(),
+      expect.objectContaining({
+        queryParams: expect.objectContaining({
+          page: 1,
+          from: '2024-01-01',
+        }),
+      }),
+    );
+  });
+
   it('should calculate the sort attribute for an id', () => {
     // WHEN
     comp.ngOnInit();
@@ -3,6 +3,7 @@ import { HttpHeaders } from '@angular/common/http';
 import { ActivatedRoute, Data, ParamMap, Router, RouterModule } from '@angular/router';
 import { Observable, Subscription, combineLatest, filter, tap } from 'rxjs';
 import { NgbModal } from '@ng-bootstrap/ng-bootstrap';
+import dayjs from 'dayjs/esm';
 
 import SharedModule from 'app/shared/shared.module';
 import { SortByDirective, SortDirective, SortService, type SortState, sortStateSignal } from 'app/shared/sort';
@@ -42,6 +43,8 @@ export class OrderComponent implements OnInit {
   itemsPerPage = ITEMS_PER_PAGE;
   totalItems = 0;
   page = 1;
+  // start of the order date window, as yyyy-MM-dd; the server lists the last few months without it
+  from: string | null = null;
 
   public router = inject(Router);
   protected orderService = inject(OrderService);
@@ -89,9 +92,14 @@ export class OrderComponent implements OnInit {
     this.handleNavigation(page, this.sortState());
   }
 
+  navigateToFrom(): void {
+    this.handleNavigation(1, this.sortState());
+  }
+
   protected fillComponentAttributeFromRoute(params: ParamMap, data: Data): void {
     const page = params.get(PAGE_HEADER);
     this.page = +(page ?? 1);
+    this.from = params.get('from');
     this.sortState.set(this.sortService.parseSortParam(params.get(SORT) ?? data[DEFAULT_SORT_DATA]));
   }
 
@@ -119,6 +127,9 @@ export class OrderComponent implements OnInit {
       size: this.itemsPerPage,
       sort: this.sortService.buildSortParam(this.sortState()),
     };
+    if (this.from) {
+      queryObject.from = dayjs(this.from).toISOString();
+    }
     return this.orderService.query(queryObject).pipe(tap(() => (this.isLoading = false)));
   }
 
@@ -127,6 +138,7 @@ export class OrderComponent implements OnInit {
       page,
       size: this.itemsPerPage,
       sort: this.sortService.buildSortParam(sortState),
+      from: this.from || undefined,
     };
 
     this.ngZone.run(() => {
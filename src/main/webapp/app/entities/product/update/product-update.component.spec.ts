@@ -61,7 +61,7 @@ describe('Product Management Update Component', () => {
       product.wishList = wishList;
 
       const wishListCollection: IWishList[] = [{ id: 14566 }];
-      jest.spyOn(wishListService, 'query').mockReturnValue(of(new HttpResponse({ body: wishListCollection })));
+      jest.spyOn(wishListService, 'queryAll').mockReturnValue(of(wishListCollection));
       const additionalWishLists = [wishList];
       const expectedCollection: IWishList[] = [...additionalWishLists, ...wishListCollection];
       jest.spyOn(wishListService, 'addWishListToCollectionIfMissing').mockReturnValue(expectedCollection);
@@ -69,7 +69,7 @@ describe('Product Management Update Component', () => {
       activatedRoute.data = of({ product });
       comp.ngOnInit();
 
-      expect(wishListService.query).toHaveBeenCalled();
+      expect(wishListService.queryAll).toHaveBeenCalled();
       expect(wishListService.addWishListToCollectionIfMissing).toHaveBeenCalledWith(
         wishListCollection,
         ...additionalWishLists.map(expect.objectContaining),
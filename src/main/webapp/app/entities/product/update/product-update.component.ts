@@ -110,8 +110,7 @@ export class ProductUpdateComponent implements OnInit {
 
   protected loadRelationshipsOptions(): void {
     this.wishListService
-      .query()
-      .pipe(map((res: HttpResponse<IWishList[]>) => res.body ?? []))
+      .queryAll()
       .pipe(
         map((wishLists: IWishList[]) =>
           this.wishListService.addWishListToCollectionIfMissing<IWishList>(wishLists, this.product?.wishList),
@@ -86,6 +86,17 @@ describe('WishList Service', () => {
       expect(expectedResult).toMatchObject([expected]);
     });
 
+    it('should read all the pages of WishList', () => {
+      const fullPage = Array.from({ length: 1000 }, (_, index) => ({ id: index + 1 }));
+
+      service.queryAll().subscribe(resp => (expectedResult = resp));
+
+      httpMock.expectOne(req => req.params.get('page') === '0' && req.params.get('size') === '1000').flush(fullPage);
+      httpMock.expectOne(req => req.params.get('page') === '1').flush([{ id: 1001 }]);
+      httpMock.verify();
+      expect(expectedResult).toHaveLength(1001);
+    });
+
     it('should delete a WishList', () => {
       const expected = true;
 
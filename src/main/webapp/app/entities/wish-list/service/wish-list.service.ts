@@ -1,6 +1,6 @@
 import { Injectable, inject } from '@angular/core';
 import { HttpClient, HttpResponse } from '@angular/common/http';
-import { Observable } from 'rxjs';
+import { EMPTY, Observable, expand, reduce } from 'rxjs';
 
 import { isPresent } from 'app/core/util/operators';
 import { ApplicationConfigService } from 'app/core/config/application-config.service';
@@ -12,6 +12,9 @@ export type PartialUpdateWishList = Partial<IWishList> & Pick<IWishList, 'id'>;
 export type EntityResponseType = HttpResponse<IWishList>;
 export type EntityArrayResponseType = HttpResponse<IWishList[]>;
 
+// the largest page the server serves, see spring.data.web.pageable.max-page-size
+const QUERY_ALL_PAGE_SIZE = 1000;
+
 @Injectable({ providedIn: 'root' })
 export class WishListService {
   protected http = inject(HttpClient);
@@ -40,6 +43,18 @@ export class WishListService {
     return this.http.get<IWishList[]>(this.resourceUrl, { params: options, observe: 'response' });
   }
 
+  /**
+   * Reads all the wish lists, page after page, for the selects of the forms: a single query only returns the first page.
+   */
+  queryAll(req?: any): Observable<IWishList[]> {
+    const queryPage = (page: number): Observable<EntityArrayResponseType> =>
+      this.query({ sort: ['id,asc'], ...req, page, size: QUERY_ALL_PAGE_SIZE });
+    return queryPage(0).pipe(
+      expand((res, index) => ((res.body ?? []).length < QUERY_ALL_PAGE_SIZE ? EMPTY : queryPage(index + 1))),
+      reduce((wishLists: IWishList[], res) => wishLists.concat(res.body ?? []), []),
+    );
+  }
+
   delete(id: number): Observable<HttpResponse<{}>> {
     return this.http.delete(`${this.resourceUrl}/${id}`, { observe: 'response' });
   }
@@ -0,0 +1,96 @@
+package myapp.aop.profiling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.Test;
+
+class ProfilingAspectTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void unsampledCallsAreNotRecorded() throws Throwable {
+        ProfilingAspect aspect = new ProfilingAspect(0, 10, meterRegistry);
+
+        aspect.profileAround(joinPoint(new Resource(), "get", () -> aspect.profileAround(joinPoint(new Service(), "find", null))));
+
+        assertThat(aspect.callPaths()).isEmpty();
+        assertThat(meterRegistry.find(ProfilingAspect.TIMER_NAME).timers()).isEmpty();
+    }
+
+    @Test
+    void sampledCallsAreRecordedByPath() throws Throwable {
+        ProfilingAspect aspect = new ProfilingAspect(1, 10, meterRegistry);
+        Throwing nested = () -> aspect.profileAround(joinPoint(new Service(), "find", null));
+
+        aspect.profileAround(joinPoint(new Resource(), "get", nested));
+        aspect.profileAround(joinPoint(new Resource(), "get", nested));
+        aspect.profileAround(joinPoint(new Service(), "find", null));
+
+        assertThat(aspect.callPaths())
+            .extracting(CallPathStatistics::getPath, CallPathStatistics::getCount)
+            .containsExactlyInAnyOrder(
+                tuple("Resource.get", 2L),
+                tuple("Resource.get > Service.find", 2L),
+                tuple("Service.find", 1L)
+            );
+        assertThat(meterRegistry.get(ProfilingAspect.TIMER_NAME).tags("class", "Service", "method", "find").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void pathsBeyondTheLimitAreNotRecorded() throws Throwable {
+        ProfilingAspect aspect = new ProfilingAspect(1, 1, meterRegistry);
+
+        aspect.profileAround(joinPoint(new Resource(), "get", () -> aspect.profileAround(joinPoint(new Service(), "find", null))));
+        aspect.profileAround(joinPoint(new Service(), "find", null));
+
+        assertThat(aspect.callPaths()).extracting(CallPathStatistics::getPath).containsExactly("Resource.get");
+        assertThat(meterRegistry.get(ProfilingAspect.TIMER_NAME).tag("class", "Service").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void callInProgressDuringResetIsNotCountedInTheNewTree() throws Throwable {
+        ProfilingAspect aspect = new ProfilingAspect(1, 1, meterRegistry);
+
+        aspect.profileAround(
+            joinPoint(new Resource(), "get", () -> {
+                aspect.reset();
+                return aspect.profileAround(joinPoint(new Service(), "find", null));
+            })
+        );
+        aspect.profileAround(joinPoint(new Service(), "find", null));
+
+        assertThat(aspect.callPaths()).extracting(CallPathStatistics::getPath).containsExactly("Service.find");
+    }
+
+    private static ProceedingJoinPoint joinPoint(Object target, String methodName, Throwing body) throws Throwable {
+        MethodSignature signature = mock(MethodSignature.class);
+        when(signature.getMethod()).thenReturn(target.getClass().getDeclaredMethod(methodName));
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(joinPoint.getThis()).thenReturn(target);
+        when(joinPoint.proceed()).thenAnswer(invocation -> body == null ? null : body.call());
+        return joinPoint;
+    }
+
+    @FunctionalInterface
+    private interface Throwing {
+        Object call() throws Throwable;
+    }
+
+    static class Resource {
+
+        void get() {}
+    }
+
+    static class Service {
+
+        void find() {}
+    }
+}
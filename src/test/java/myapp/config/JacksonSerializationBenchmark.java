@@ -0,0 +1,141 @@
+package myapp.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import myapp.domain.Address;
+import myapp.domain.Category;
+import myapp.domain.Customer;
+import myapp.domain.Order;
+import myapp.domain.Product;
+import myapp.domain.enumeration.CategoryStatus;
+import myapp.domain.enumeration.ProductStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+/**
+ * Cost of serializing entities as the REST resources do, with the modules of {@link JacksonConfiguration}.
+ * <p>
+ * The entities are loaded from an in-memory database and kept managed, so that their lazy associations are Hibernate
+ * proxies and collections, handled by the {@code Hibernate6Module}, as in a request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JacksonSerializationBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private AnnotationConfigApplicationContext context;
+
+    private EntityManager entityManager;
+
+    private ObjectMapper objectMapper;
+
+    private Product product;
+
+    private List<Product> products;
+
+    private Category category;
+
+    private Order order;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        JacksonConfiguration jacksonConfiguration = new JacksonConfiguration();
+        objectMapper = new ObjectMapper()
+            .registerModule(jacksonConfiguration.javaTimeModule())
+            .registerModule(jacksonConfiguration.jdk8TimeModule())
+            .registerModule(jacksonConfiguration.hibernate6Module())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        context = new AnnotationConfigApplicationContext(JpaTestConfiguration.class);
+        entityManager = context.getBean(EntityManagerFactory.class).createEntityManager();
+
+        entityManager.getTransaction().begin();
+        Customer customer = new Customer().firstName("Ada").lastName("Lovelace").email("ada@localhost");
+        entityManager.persist(customer);
+        Address address = new Address().address1("1 Main Street").city("Springfield").postcode("12345").country("US").customer(customer);
+        entityManager.persist(address);
+        Order newOrder = new Order()
+            .orderDate(Instant.now())
+            .status("PLACED")
+            .totalAmount(new BigDecimal("209.90"))
+            .shippingCost(new BigDecimal("9.90"))
+            .shippingAddress(address)
+            .customer(customer);
+        entityManager.persist(newOrder);
+        Category newCategory = new Category().description("Benchmark").dateAdded(Instant.now()).status(CategoryStatus.AVAILABLE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            Product newProduct = new Product()
+                .title("Product " + i)
+                .keywords("benchmark product " + i)
+                .description("A product to serialize, with a description of a realistic length for a product page.")
+                .rating(4)
+                .price(new BigDecimal("19.99"))
+                .quantityInStock(100)
+                .status(ProductStatus.IN_STOCK)
+                .weight(1.5)
+                .dimensions("10x20x30")
+                .dateAdded(Instant.now());
+            newCategory.addProduct(newProduct);
+            newOrder.addProduct(newProduct);
+            entityManager.persist(newProduct);
+        }
+        entityManager.persist(newCategory);
+        entityManager.getTransaction().commit();
+        entityManager.clear();
+
+        products = entityManager.createQuery("select product from Product product order by product.id", Product.class).getResultList();
+        product = products.get(0);
+        category = entityManager.find(Category.class, newCategory.getId());
+        order = entityManager.find(Order.class, newOrder.getId());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityManager.close();
+        context.close();
+    }
+
+    @Benchmark
+    public void product() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), product);
+    }
+
+    @Benchmark
+    public void productPage() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), products);
+    }
+
+    @Benchmark
+    public void category() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), category);
+    }
+
+    @Benchmark
+    public void order() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), order);
+    }
+}
@@ -0,0 +1,73 @@
+package myapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.Map;
+import java.util.UUID;
+import javax.sql.DataSource;
+import myapp.repository.ProductRepository;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+
+/**
+ * JPA on a private in-memory H2 database, for the tests and benchmarks which need the entities and repositories without
+ * starting the whole application.
+ * <p>
+ * The schema is generated from the entities, with the column names of the Liquibase changelogs, and the second-level
+ * cache is enabled as in the application. A test can replace the {@code dataSource} or {@code transactionManager} bean
+ * by declaring its own under the same name.
+ */
+@Configuration
+@EnableTransactionManagement
+@EnableJpaRepositories(basePackageClasses = ProductRepository.class)
+public class JpaTestConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public DataSource dataSource() {
+        return h2DataSource();
+    }
+
+    @Bean
+    public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setPackagesToScan("myapp.domain");
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaPropertyMap(
+            Map.of(
+                "hibernate.hbm2ddl.auto",
+                "create-drop",
+                "hibernate.physical_naming_strategy",
+                "org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy",
+                "hibernate.cache.use_second_level_cache",
+                "true",
+                "hibernate.cache.region.factory_class",
+                "jcache",
+                "hibernate.javax.cache.missing_cache_strategy",
+                "create"
+            )
+        );
+        return factoryBean;
+    }
+
+    @Bean
+    public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new JpaTransactionManager(entityManagerFactory);
+    }
+
+    /**
+     * @return a pool on a new in-memory database, kept until the pool is closed.
+     */
+    public static HikariDataSource h2DataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        // concurrent tests wait for row locks rather than fail after H2's default of one second
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000");
+        dataSource.setMaximumPoolSize(20);
+        return dataSource;
+    }
+}
@@ -0,0 +1,183 @@
+package myapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import myapp.domain.Product;
+import myapp.domain.User;
+import myapp.domain.enumeration.ProductStatus;
+import myapp.repository.ProductRepository;
+import myapp.repository.UserRepository;
+import myapp.security.DomainUserDetailsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Checks that what is read from a lagging read replica never refills the caches a write on the primary has evicted.
+ * <p>
+ * The replica is a second database which only catches up with the primary when the test {@link #replicate() replicates}
+ * it, read-only transactions are routed to it as in {@link ReadReplicaConfiguration}.
+ */
+class ReadReplicaCachingTest {
+
+    private static final String LOGIN = "replicated";
+
+    private AnnotationConfigApplicationContext context;
+
+    private ProductRepository productRepository;
+
+    private UserRepository userRepository;
+
+    private DomainUserDetailsService userDetailsService;
+
+    private jakarta.persistence.Cache secondLevelCache;
+
+    private TransactionTemplate readWrite;
+
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        context = new AnnotationConfigApplicationContext(TestConfiguration.class);
+        productRepository = context.getBean(ProductRepository.class);
+        userRepository = context.getBean(UserRepository.class);
+        userDetailsService = context.getBean(DomainUserDetailsService.class);
+        secondLevelCache = context.getBean(EntityManagerFactory.class).getCache();
+        readWrite = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void readOnlyTransactionDoesNotRefillTheSecondLevelCacheFromTheReplica() {
+        Long id = inTransaction(readWrite, () -> productRepository.save(newProduct("Before")).getId());
+        replicate();
+
+        // the write commits on the primary and evicts the product, the replica has not replayed it yet
+        inTransaction(readWrite, () -> productRepository.findById(id).orElseThrow().title("After"));
+        secondLevelCache.evict(Product.class, id);
+
+        assertThat(inTransaction(readOnly, () -> productRepository.findById(id).orElseThrow().getTitle())).isEqualTo("Before");
+        assertThat(secondLevelCache.contains(Product.class, id)).isFalse();
+
+        assertThat(inTransaction(readWrite, () -> productRepository.findById(id).orElseThrow().getTitle())).isEqualTo("After");
+        assertThat(secondLevelCache.contains(Product.class, id)).isTrue();
+        assertThat(inTransaction(readOnly, () -> productRepository.findById(id).orElseThrow().getTitle())).isEqualTo("After");
+    }
+
+    @Test
+    void userCachesAreNotRefilledFromTheReplica() {
+        inTransaction(readWrite, () -> userRepository.save(newUser("a".repeat(60))));
+        replicate();
+
+        // the password changes on the primary, and the user caches are evicted, before the replica replays it
+        String newPassword = "b".repeat(60);
+        new JdbcTemplate(context.getBean("primaryDataSource", DataSource.class)).update(
+            "update jhi_user set password_hash = ? where login = ?",
+            newPassword,
+            LOGIN
+        );
+        Cache usersByLogin = context.getBean(CacheManager.class).getCache(UserRepository.USERS_BY_LOGIN_CACHE);
+        usersByLogin.clear();
+
+        assertThat(inTransaction(readOnly, () -> userRepository.findOneWithAuthoritiesByLogin(LOGIN).orElseThrow().getPassword()))
+            .isEqualTo("a".repeat(60));
+        assertThat(usersByLogin.get(LOGIN)).isNull();
+
+        assertThat(userDetailsService.loadUserByUsername(LOGIN).getPassword()).isEqualTo(newPassword);
+        assertThat(usersByLogin.get(LOGIN)).isNotNull();
+    }
+
+    private <T> T inTransaction(TransactionTemplate transactionTemplate, Supplier<T> action) {
+        return transactionTemplate.execute(status -> action.get());
+    }
+
+    /**
+     * Make the replica a copy of the primary.
+     */
+    private void replicate() {
+        JdbcTemplate replica = new JdbcTemplate(context.getBean("replicaDataSource", DataSource.class));
+        replica.execute("DROP ALL OBJECTS");
+        new JdbcTemplate(context.getBean("primaryDataSource", DataSource.class)).queryForList("SCRIPT", String.class).forEach(
+            replica::execute
+        );
+    }
+
+    private static Product newProduct(String title) {
+        return new Product().title(title).price(BigDecimal.TEN).quantityInStock(1).status(ProductStatus.IN_STOCK).dateAdded(Instant.now());
+    }
+
+    private static User newUser(String password) {
+        User user = new User();
+        user.setLogin(LOGIN);
+        user.setPassword(password);
+        user.setActivated(true);
+        user.setCreatedBy("system");
+        return user;
+    }
+
+    /**
+     * Replaces the {@code dataSource} and {@code transactionManager} of {@link JpaTestConfiguration} with their read
+     * replica routing counterparts.
+     */
+    @Configuration
+    @EnableCaching
+    @Import({ JpaTestConfiguration.class, DomainUserDetailsService.class })
+    static class TestConfiguration {
+
+        @Bean(destroyMethod = "close")
+        HikariDataSource primaryDataSource() {
+            return JpaTestConfiguration.h2DataSource();
+        }
+
+        @Bean(destroyMethod = "close")
+        HikariDataSource replicaDataSource() {
+            return JpaTestConfiguration.h2DataSource();
+        }
+
+        @Bean
+        @Primary
+        DataSource dataSource() {
+            LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource());
+            dataSource.setReadOnlyDataSource(replicaDataSource());
+            return dataSource;
+        }
+
+        @Bean
+        JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+            JpaTransactionManager transactionManager = new ReplicaAwareJpaTransactionManager();
+            transactionManager.setEntityManagerFactory(entityManagerFactory);
+            return transactionManager;
+        }
+
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package myapp.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import myapp.domain.Category;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of putting the categories fetched with their products, ordered by id, back in the order of the page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CategoryRepositoryWithBagRelationshipsImplBenchmark {
+
+    @Param({ "20", "200", "1000" })
+    private int pageSize;
+
+    private long[] pageIds;
+
+    private List<Category> fetchedById;
+
+    @Setup
+    public void setUp() {
+        // a page sorted on another column than the id: distinct ids, in random order
+        List<Category> page = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            page.add(new Category().id(1000L + 7L * i));
+        }
+        Collections.shuffle(page, new Random(42));
+        pageIds = page.stream().mapToLong(Category::getId).toArray();
+        fetchedById = new ArrayList<>(page);
+        fetchedById.sort(Comparator.comparing(Category::getId));
+    }
+
+    @Benchmark
+    public Object inOriginalOrder() {
+        return CategoryRepositoryWithBagRelationshipsImpl.inOriginalOrder(pageIds, fetchedById);
+    }
+}
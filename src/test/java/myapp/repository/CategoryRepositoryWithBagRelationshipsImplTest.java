@@ -0,0 +1,122 @@
+package myapp.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.hibernate6.Hibernate6Module;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import myapp.config.JpaTestConfiguration;
+import myapp.domain.Category;
+import myapp.domain.Product;
+import myapp.domain.enumeration.CategoryStatus;
+import myapp.domain.enumeration.ProductStatus;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Checks that a page of categories and their products is loaded with a bounded number of statements.
+ */
+class CategoryRepositoryWithBagRelationshipsImplTest {
+
+    private static final int CATEGORY_COUNT = 8;
+    private static final int PRODUCTS_PER_CATEGORY = 3;
+
+    private AnnotationConfigApplicationContext context;
+
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    private CategoryRepositoryWithBagRelationshipsImpl categoryRepositoryWithBagRelationships;
+
+    @BeforeEach
+    void setUp() {
+        context = new AnnotationConfigApplicationContext(JpaTestConfiguration.class);
+        EntityManagerFactory entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        entityManager = entityManagerFactory.createEntityManager();
+        categoryRepositoryWithBagRelationships = new CategoryRepositoryWithBagRelationshipsImpl();
+        ReflectionTestUtils.setField(categoryRepositoryWithBagRelationships, "entityManager", entityManager);
+
+        entityManager.getTransaction().begin();
+        Category parent = null;
+        for (int i = 0; i < CATEGORY_COUNT; i++) {
+            Category category = new Category()
+                .description("Category " + i)
+                .dateAdded(Instant.now())
+                .status(CategoryStatus.AVAILABLE)
+                .parent(parent);
+            for (int j = 0; j < PRODUCTS_PER_CATEGORY; j++) {
+                Product product = new Product()
+                    .title("Product " + i + "-" + j)
+                    .price(BigDecimal.TEN)
+                    .status(ProductStatus.IN_STOCK)
+                    .dateAdded(Instant.now());
+                entityManager.persist(product);
+                category.addProduct(product);
+            }
+            entityManager.persist(category);
+            parent = category;
+        }
+        entityManager.getTransaction().commit();
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        entityManager.close();
+        context.close();
+    }
+
+    @Test
+    void fetchesPageOfCategoriesWithProductsInTwoStatements() throws Exception {
+        entityManager.getTransaction().begin();
+        List<Category> page = entityManager
+            .createQuery("select category from Category category order by category.description desc", Category.class)
+            .setMaxResults(CATEGORY_COUNT)
+            .getResultList();
+
+        List<Category> result = categoryRepositoryWithBagRelationships.fetchBagRelationships(page);
+
+        ObjectMapper mapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .registerModule(new Hibernate6Module().configure(Hibernate6Module.Feature.SERIALIZE_IDENTIFIER_FOR_LAZY_NOT_LOADED_OBJECTS, true));
+        String json = mapper.writeValueAsString(result);
+        entityManager.getTransaction().commit();
+
+        assertThat(result).containsExactlyElementsOf(page);
+        assertThat(result).allSatisfy(category -> assertThat(category.getProducts()).hasSize(PRODUCTS_PER_CATEGORY));
+        assertThat(json).contains("Product 0-0", "Product " + (CATEGORY_COUNT - 1) + "-" + (PRODUCTS_PER_CATEGORY - 1));
+        // one statement for the page, one for all the products, none while serializing
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void fetchesOneCategoryWithProductsInOneStatement() {
+        Category category = entityManager
+            .createQuery("select category from Category category where category.description = :description", Category.class)
+            .setParameter("description", "Category 0")
+            .getSingleResult();
+        entityManager.clear();
+        statistics.clear();
+
+        Category result = categoryRepositoryWithBagRelationships.fetchBagRelationships(Optional.of(category)).orElseThrow();
+
+        assertThat(result.getProducts()).hasSize(PRODUCTS_PER_CATEGORY);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,138 @@
+package myapp.security;
+
+import static myapp.security.SecurityUtils.JWT_ALGORITHM;
+
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import myapp.management.SecurityMetersService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+/**
+ * Decode throughput of the JWT decoder, classifying failures by exception type, as the application does, or by
+ * scanning exception messages, as it used to.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtDecoderBenchmark {
+
+    @Param({ "valid", "expired", "invalid-signature", "malformed" })
+    private String kind;
+
+    private String token;
+
+    private JwtDecoder typedDecoder;
+
+    private JwtDecoder messageMatchingDecoder;
+
+    @Setup
+    public void setUp() {
+        SecretKey key = randomKey();
+        Clock clock = Clock.systemUTC();
+        NimbusJwtDecoder nimbusDecoder = NimbusJwtDecoder.withSecretKey(key).macAlgorithm(JWT_ALGORITHM).build();
+        nimbusDecoder.setJwtValidator(JwtErrorClassifier.timestampValidator(clock));
+        SecurityMetersService metersService = new SecurityMetersService(new SimpleMeterRegistry());
+
+        typedDecoder = token -> {
+            try {
+                return nimbusDecoder.decode(token);
+            } catch (JwtException e) {
+                switch (JwtErrorClassifier.classify(e)) {
+                    case INVALID_SIGNATURE -> metersService.trackTokenInvalidSignature();
+                    case EXPIRED -> metersService.trackTokenExpired();
+                    case MALFORMED -> metersService.trackTokenMalformed();
+                    case UNSUPPORTED -> metersService.trackTokenUnsupported();
+                    case UNKNOWN -> {}
+                }
+                throw e;
+            }
+        };
+        messageMatchingDecoder = token -> {
+            try {
+                return nimbusDecoder.decode(token);
+            } catch (Exception e) {
+                if (e.getMessage().contains("Invalid signature")) {
+                    metersService.trackTokenInvalidSignature();
+                } else if (e.getMessage().contains("Jwt expired at")) {
+                    metersService.trackTokenExpired();
+                } else if (
+                    e.getMessage().contains("Invalid JWT serialization") ||
+                    e.getMessage().contains("Malformed token") ||
+                    e.getMessage().contains("Invalid unsecured/JWS/JWE")
+                ) {
+                    metersService.trackTokenMalformed();
+                }
+                throw e;
+            }
+        };
+
+        Instant now = clock.instant();
+        token = switch (kind) {
+            case "valid" -> encode(key, now, now.plus(Duration.ofHours(1)));
+            case "expired" -> encode(key, now.minus(Duration.ofHours(2)), now.minus(Duration.ofHours(1)));
+            case "invalid-signature" -> encode(randomKey(), now, now.plus(Duration.ofHours(1)));
+            case "malformed" -> "not.a.token";
+            default -> throw new IllegalArgumentException(kind);
+        };
+    }
+
+    @Benchmark
+    public Object typed() {
+        return decode(typedDecoder);
+    }
+
+    @Benchmark
+    public Object messageMatching() {
+        return decode(messageMatchingDecoder);
+    }
+
+    private Object decode(JwtDecoder decoder) {
+        try {
+            return decoder.decode(token);
+        } catch (JwtException e) {
+            return e;
+        }
+    }
+
+    private static String encode(SecretKey key, Instant issuedAt, Instant expiresAt) {
+        JwtClaimsSet claims = JwtClaimsSet.builder().subject("user").issuedAt(issuedAt).expiresAt(expiresAt).build();
+        Jwt jwt = new NimbusJwtEncoder(new ImmutableSecret<>(key)).encode(
+            JwtEncoderParameters.from(JwsHeader.with(JWT_ALGORITHM).build(), claims)
+        );
+        return jwt.getTokenValue();
+    }
+
+    private static SecretKey randomKey() {
+        byte[] bytes = new byte[64];
+        new SecureRandom().nextBytes(bytes);
+        return new SecretKeySpec(bytes, JWT_ALGORITHM.getName());
+    }
+}
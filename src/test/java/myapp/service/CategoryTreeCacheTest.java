@@ -0,0 +1,97 @@
+package myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.stream.LongStream;
+import myapp.repository.CategoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class CategoryTreeCacheTest {
+
+    private static final long NO_PARENT = CategoryTreeCache.Tree.NO_PARENT;
+
+    /**
+     * 1 has the children 2 and 4, and 2 has 3; 5 and 6 are each other's parent; the parent of 7 does not exist; 8 is
+     * its own parent.
+     */
+    private static final CategoryTreeCache.Tree TREE = CategoryTreeCache.Tree.build(
+        new long[] { 1, 2, 3, 4, 5, 6, 7, 8 },
+        new long[] { NO_PARENT, 1, 2, 1, 6, 5, 99, 8 }
+    );
+
+    @Test
+    void subtreeIsTheContiguousPreOrderSliceOfItsRoot() {
+        assertThat(TREE.subtreeOf(1)).containsExactly(1, 2, 3, 4);
+        assertThat(TREE.subtreeOf(2)).containsExactly(2, 3);
+        assertThat(TREE.subtreeOf(3)).containsExactly(3);
+        assertThat(TREE.subtreeOf(4)).containsExactly(4);
+    }
+
+    @Test
+    void orphansAndSelfParentsAreRoots() {
+        assertThat(TREE.subtreeOf(7)).containsExactly(7);
+        assertThat(TREE.subtreeOf(8)).containsExactly(8);
+    }
+
+    @Test
+    void cycleIsBrokenAtItsSmallestId() {
+        assertThat(TREE.subtreeOf(5)).containsExactly(5, 6);
+        assertThat(TREE.subtreeOf(6)).containsExactly(6);
+    }
+
+    @Test
+    void ancestorIsAStrictEnclosingPreOrderInterval() {
+        assertThat(TREE.isAncestor(1, 3)).isTrue();
+        assertThat(TREE.isAncestor(2, 3)).isTrue();
+        assertThat(TREE.isAncestor(1, 4)).isTrue();
+        assertThat(TREE.isAncestor(3, 1)).isFalse();
+        assertThat(TREE.isAncestor(2, 4)).isFalse();
+        assertThat(TREE.isAncestor(1, 1)).isFalse();
+        assertThat(TREE.isAncestor(5, 6)).isTrue();
+        assertThat(TREE.isAncestor(6, 5)).isFalse();
+        assertThat(TREE.isAncestor(99, 7)).isFalse();
+    }
+
+    @Test
+    void ancestorsAreListedRootFirst() {
+        assertThat(TREE.ancestorsOf(3)).containsExactly(1, 2);
+        assertThat(TREE.ancestorsOf(4)).containsExactly(1);
+        assertThat(TREE.ancestorsOf(1)).isEmpty();
+        assertThat(TREE.ancestorsOf(6)).containsExactly(5);
+        assertThat(TREE.ancestorsOf(7)).isEmpty();
+        assertThat(TREE.ancestorsOf(8)).isEmpty();
+        assertThat(TREE.ancestorsOf(42)).isEmpty();
+    }
+
+    @Test
+    void everyCategoryIsVisitedOnce() {
+        long[] nodes = LongStream.of(1, 5, 7, 8).flatMap(root -> LongStream.of(TREE.subtreeOf(root))).toArray();
+
+        assertThat(nodes).containsExactlyInAnyOrder(1, 2, 3, 4, 5, 6, 7, 8);
+        assertThat(TREE.subtreeOf(42)).isEmpty();
+    }
+
+    @Test
+    void refreshReloadsTheTreeOnlyOnceLoaded() {
+        CategoryRepository categoryRepository = mock(CategoryRepository.class);
+        when(categoryRepository.findAllIdAndParentId()).thenReturn(
+            List.<Object[]>of(new Object[] { 1L, null }),
+            List.of(new Object[] { 1L, null }, new Object[] { 2L, 1L })
+        );
+        CategoryTreeCache cache = new CategoryTreeCache(categoryRepository, mock(PlatformTransactionManager.class));
+
+        cache.refresh();
+        verify(categoryRepository, never()).findAllIdAndParentId();
+
+        assertThat(cache.contains(2)).isFalse();
+        cache.refresh();
+        assertThat(cache.ancestorsOf(2)).containsExactly(1);
+        assertThat(cache.isAncestor(1, 2)).isTrue();
+    }
+}
@@ -0,0 +1,99 @@
+package myapp.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import myapp.domain.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.autoconfigure.thymeleaf.ThymeleafProperties;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+/**
+ * Cost of rendering one mail, body and subject, with {@link MailTemplateRenderer} or with a Thymeleaf engine set up
+ * as the application's default one, both caching the parsed templates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MailTemplateRendererBenchmark {
+
+    @Param({ "mail/activationEmail", "mail/passwordResetEmail" })
+    private String templateName;
+
+    @Param({ "en", "fr" })
+    private String langKey;
+
+    private ResourceBundleMessageSource messageSource;
+
+    private SpringTemplateEngine defaultEngine;
+
+    private MailTemplateRenderer renderer;
+
+    private User user;
+
+    @Setup
+    public void setUp() {
+        messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("i18n/messages");
+        messageSource.setDefaultEncoding(StandardCharsets.UTF_8.name());
+        messageSource.setFallbackToSystemLocale(false);
+
+        ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
+        templateResolver.setPrefix("templates/");
+        templateResolver.setSuffix(".html");
+        templateResolver.setTemplateMode(TemplateMode.HTML);
+        templateResolver.setCacheable(true);
+        defaultEngine = new SpringTemplateEngine();
+        defaultEngine.setTemplateResolver(templateResolver);
+        defaultEngine.setTemplateEngineMessageSource(messageSource);
+
+        renderer = new MailTemplateRenderer(messageSource, new ThymeleafProperties());
+
+        user = new User();
+        user.setLogin("benchmark");
+        user.setEmail("benchmark@localhost");
+        user.setLangKey(langKey);
+        user.setActivationKey("12345678901234567890");
+        user.setResetKey("09876543210987654321");
+    }
+
+    @Benchmark
+    public Object defaultEngine() {
+        Locale locale = Locale.forLanguageTag(user.getLangKey());
+        Context context = new Context(locale);
+        context.setVariable("user", user);
+        context.setVariable("baseUrl", "http://127.0.0.1:8080");
+        String content = defaultEngine.process(templateName, context);
+        String subject = messageSource.getMessage("email.activation.title", null, locale);
+        return content.length() + subject.length();
+    }
+
+    @Benchmark
+    public Object renderer() {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("user", user);
+        variables.put("baseUrl", "http://127.0.0.1:8080");
+        String content = renderer.render(templateName, user.getLangKey(), variables);
+        String subject = renderer.message("email.activation.title", user.getLangKey());
+        return content.length() + subject.length();
+    }
+}
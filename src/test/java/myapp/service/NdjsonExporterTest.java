@@ -0,0 +1,34 @@
+package myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+class NdjsonExporterTest {
+
+    @Test
+    void writesOneValuePerLineWithNothingBetweenThem() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = new NdjsonExporter(new ObjectMapper()).write(Stream.of(Map.of("id", 1), Map.of("id", 2)), out);
+
+        assertThat(count).isEqualTo(2);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("{\"id\":1}\n{\"id\":2}\n");
+    }
+
+    @Test
+    void ignoresTheIndentationOfTheSharedMapper() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ObjectMapper indentingMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+        new NdjsonExporter(indentingMapper).write(Stream.of(Map.of("id", 1), Map.of("id", 2)), out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("{\"id\":1}\n{\"id\":2}\n");
+    }
+}
@@ -0,0 +1,92 @@
+package myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import java.io.StringReader;
+import javax.sql.DataSource;
+import myapp.config.ApplicationProperties;
+import myapp.config.JpaTestConfiguration;
+import myapp.domain.Product;
+import myapp.repository.ProductRepository;
+import myapp.service.dto.ProductImportReportDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Checks that a chunk rejected by the database is rolled back and reported, and that the import goes on with the next
+ * chunks.
+ */
+class ProductImportServiceTest {
+
+    private AnnotationConfigApplicationContext context;
+
+    private ProductImportService productImportService;
+
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    void setUp() {
+        context = new AnnotationConfigApplicationContext(TestConfiguration.class);
+        productImportService = context.getBean(ProductImportService.class);
+        productRepository = context.getBean(ProductRepository.class);
+        // a constraint the Bean Validation constraints of Product know nothing about
+        new JdbcTemplate(context.getBean(DataSource.class)).execute("create unique index ux_product__title on product (title)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void chunkViolatingADatabaseConstraintIsRolledBackAndReported() throws Exception {
+        String csv = """
+            title;price;status;date_added
+            First;10.00;IN_STOCK;2024-01-01T00:00:00Z
+            Second;10.00;IN_STOCK;2024-01-01T00:00:00Z
+            Third;10.00;IN_STOCK;2024-01-01T00:00:00Z
+            First;10.00;IN_STOCK;2024-01-01T00:00:00Z
+            Fifth;10.00;IN_STOCK;2024-01-01T00:00:00Z
+            """;
+
+        ProductImportReportDTO report = productImportService.importCsv(new StringReader(csv));
+
+        assertThat(report.getImported()).isEqualTo(3);
+        assertThat(report.getFailed()).isEqualTo(2);
+        assertThat(report.getErrors()).extracting(ProductImportReportDTO.RowError::getLine).containsExactly(4L, 5L);
+        assertThat(report.getErrors().get(0).getMessages()).singleElement().asString().startsWith("Chunk rolled back: ");
+        assertThat(productRepository.findAll()).extracting(Product::getTitle).containsExactlyInAnyOrder("First", "Second", "Fifth");
+    }
+
+    @Configuration
+    @Import({ JpaTestConfiguration.class, ProductImportService.class, ProductSearchIndex.class, ProductPriceIndex.class })
+    static class TestConfiguration {
+
+        @Bean
+        Validator validator() {
+            return Validation.buildDefaultValidatorFactory().getValidator();
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper().registerModule(new JavaTimeModule());
+        }
+
+        @Bean
+        ApplicationProperties applicationProperties() {
+            ApplicationProperties applicationProperties = new ApplicationProperties();
+            applicationProperties.getProductImport().setChunkSize(2);
+            return applicationProperties;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package myapp.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of finding the ids of the products priced from $20 to $50 and rated 4 or more, cheapest first, with
+ * {@link ProductPriceIndex} or with an indexed SQL query on an in-memory H2 database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductPriceIndexBenchmark {
+
+    private static final BigDecimal MIN_PRICE = new BigDecimal("20.00");
+
+    private static final BigDecimal MAX_PRICE = new BigDecimal("50.00");
+
+    private static final int MIN_RATING = 4;
+
+    @Param({ "10000", "100000" })
+    private int productCount;
+
+    private ProductPriceIndex.Columns columns;
+
+    private Connection connection;
+
+    private PreparedStatement query;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:price-index-benchmark");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table product (id bigint primary key, price decimal(21, 2) not null, rating integer)");
+            statement.execute("create index idx_product__price on product (price)");
+        }
+
+        // prices from $1 to $200, one product in six without rating
+        Random random = new Random(42);
+        ProductPriceIndex.Columns.Builder builder = new ProductPriceIndex.Columns.Builder();
+        try (PreparedStatement insert = connection.prepareStatement("insert into product (id, price, rating) values (?, ?, ?)")) {
+            for (long id = 1; id <= productCount; id++) {
+                BigDecimal price = BigDecimal.valueOf(100 + random.nextInt(19_901), 2);
+                Integer rating = random.nextInt(6) == 0 ? null : random.nextInt(6);
+                builder.add(id, ProductPriceIndex.toCents(price, RoundingMode.HALF_UP), ProductPriceIndex.toRating(rating));
+                insert.setLong(1, id);
+                insert.setBigDecimal(2, price);
+                if (rating == null) {
+                    insert.setNull(3, Types.INTEGER);
+                } else {
+                    insert.setInt(3, rating);
+                }
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        columns = builder.build();
+        query = connection.prepareStatement("select id from product where price between ? and ? and rating >= ? order by price, id");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public long[] index() {
+        return columns.search(
+            ProductPriceIndex.toCents(MIN_PRICE, RoundingMode.CEILING),
+            ProductPriceIndex.toCents(MAX_PRICE, RoundingMode.FLOOR),
+            MIN_RATING
+        );
+    }
+
+    @Benchmark
+    public long[] sql() throws SQLException {
+        query.setBigDecimal(1, MIN_PRICE);
+        query.setBigDecimal(2, MAX_PRICE);
+        query.setInt(3, MIN_RATING);
+        long[] ids = new long[64];
+        int size = 0;
+        try (ResultSet resultSet = query.executeQuery()) {
+            while (resultSet.next()) {
+                if (size == ids.length) {
+                    ids = Arrays.copyOf(ids, size * 2);
+                }
+                ids[size++] = resultSet.getLong(1);
+            }
+        }
+        return Arrays.copyOf(ids, size);
+    }
+}
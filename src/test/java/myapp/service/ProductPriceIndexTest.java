@@ -0,0 +1,56 @@
+package myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import org.junit.jupiter.api.Test;
+
+class ProductPriceIndexTest {
+
+    @Test
+    void buildSortsByPriceThenId() {
+        ProductPriceIndex.Columns.Builder builder = new ProductPriceIndex.Columns.Builder();
+        for (long id = 1; id <= 100; id++) {
+            // many equal prices, in an order the quicksort has to partition
+            builder.add(id, (id * 37) % 10, (byte) 0);
+        }
+
+        long[] ids = builder.build().search(Long.MIN_VALUE, Long.MAX_VALUE, ProductPriceIndex.NO_RATING);
+
+        assertThat(ids).hasSize(100);
+        for (int i = 1; i < ids.length; i++) {
+            long previous = (ids[i - 1] * 37) % 10;
+            long current = (ids[i] * 37) % 10;
+            assertThat(previous < current || (previous == current && ids[i - 1] < ids[i])).isTrue();
+        }
+    }
+
+    @Test
+    void putAllMergesTheBatchAndReplacesTheProductsAlreadyIndexed() {
+        ProductPriceIndex.Columns.Builder builder = new ProductPriceIndex.Columns.Builder();
+        builder.add(1, 100, (byte) 3);
+        builder.add(2, 300, (byte) 3);
+        builder.add(3, 500, (byte) 3);
+        ProductPriceIndex.Columns columns = builder.build();
+
+        ProductPriceIndex.Columns.Builder batch = new ProductPriceIndex.Columns.Builder();
+        batch.add(4, 200, (byte) 5);
+        batch.add(2, 600, (byte) 5);
+        batch.add(5, 50, (byte) 1);
+        columns.putAll(batch.build());
+
+        assertThat(columns.size()).isEqualTo(5);
+        assertThat(columns.search(Long.MIN_VALUE, Long.MAX_VALUE, ProductPriceIndex.NO_RATING)).containsExactly(5, 1, 4, 3, 2);
+        assertThat(columns.search(150, 1000, 4)).containsExactly(4, 2);
+    }
+
+    @Test
+    void toCentsClampsPricesOutOfTheRangeOfLong() {
+        assertThat(ProductPriceIndex.toCents(new BigDecimal("1e30"), RoundingMode.CEILING)).isEqualTo(Long.MAX_VALUE);
+        assertThat(ProductPriceIndex.toCents(new BigDecimal("-1e30"), RoundingMode.FLOOR)).isEqualTo(Long.MIN_VALUE);
+        assertThat(ProductPriceIndex.toCents(new BigDecimal("1e-999999999"), RoundingMode.CEILING)).isEqualTo(1);
+        assertThat(ProductPriceIndex.toCents(new BigDecimal("1e-999999999"), RoundingMode.FLOOR)).isZero();
+        assertThat(ProductPriceIndex.toCents(new BigDecimal("19.995"), RoundingMode.HALF_UP)).isEqualTo(2000);
+    }
+}
@@ -0,0 +1,139 @@
+package myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import myapp.config.JpaTestConfiguration;
+import myapp.domain.Category;
+import myapp.domain.Product;
+import myapp.domain.enumeration.CategoryStatus;
+import myapp.domain.enumeration.ProductStatus;
+import myapp.repository.CategoryRepository;
+import myapp.repository.ProductRepository;
+import myapp.service.criteria.ProductCriteria;
+import myapp.service.dto.ProductFacetsDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Checks the products filters, and that each facet is counted without its own filter.
+ * <p>
+ * Electronics holds "Phone", "Cable" and "Radio", Books holds "Phone" and "Novel", and "Lamp" is in no category and has
+ * no rating.
+ */
+class ProductQueryServiceTest {
+
+    private AnnotationConfigApplicationContext context;
+
+    private ProductQueryService productQueryService;
+
+    private Long electronicsId;
+
+    private Long booksId;
+
+    @BeforeEach
+    void setUp() {
+        context = new AnnotationConfigApplicationContext(TestConfiguration.class);
+        productQueryService = context.getBean(ProductQueryService.class);
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        CategoryRepository categoryRepository = context.getBean(CategoryRepository.class);
+
+        new TransactionTemplate(context.getBean(PlatformTransactionManager.class)).executeWithoutResult(status -> {
+            Product phone = productRepository.save(newProduct("Phone", ProductStatus.IN_STOCK, 5, "20"));
+            Product cable = productRepository.save(newProduct("Cable", ProductStatus.IN_STOCK, 3, "5"));
+            Product radio = productRepository.save(newProduct("Radio", ProductStatus.OUT_OF_STOCK, 3, "40"));
+            Product novel = productRepository.save(newProduct("Novel", ProductStatus.OUT_OF_STOCK, 5, "30"));
+            productRepository.save(newProduct("Lamp", ProductStatus.IN_STOCK, null, "50"));
+            Category electronics = newCategory("Electronics").addProduct(phone).addProduct(cable).addProduct(radio);
+            electronicsId = categoryRepository.save(electronics).getId();
+            booksId = categoryRepository.save(newCategory("Books").addProduct(phone).addProduct(novel)).getId();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void allFiltersMustApply() {
+        ProductCriteria criteria = new ProductCriteria();
+        criteria.status().setIn(List.of(ProductStatus.IN_STOCK));
+        criteria.price().setGreaterThan(BigDecimal.TEN);
+
+        assertThat(titles(criteria)).containsExactlyInAnyOrder("Phone", "Lamp");
+        assertThat(productQueryService.countByCriteria(criteria)).isEqualTo(2);
+    }
+
+    @Test
+    void ratingFilterExcludesProductsWithoutRating() {
+        ProductCriteria criteria = new ProductCriteria();
+        criteria.rating().setLessThanOrEqual(3);
+
+        assertThat(titles(criteria)).containsExactlyInAnyOrder("Cable", "Radio");
+    }
+
+    @Test
+    void productInSeveralMatchingCategoriesIsReturnedOnce() {
+        ProductCriteria criteria = new ProductCriteria();
+        criteria.categoryId().setIn(List.of(electronicsId, booksId));
+
+        assertThat(titles(criteria)).containsExactlyInAnyOrder("Phone", "Cable", "Radio", "Novel");
+        assertThat(productQueryService.countByCriteria(criteria)).isEqualTo(4);
+    }
+
+    @Test
+    void facetsOfAllProductsSkipMissingValues() {
+        ProductFacetsDTO facets = productQueryService.findFacetsByCriteria(new ProductCriteria());
+
+        assertThat(facets.getStatus()).containsOnly(entry(ProductStatus.IN_STOCK, 3L), entry(ProductStatus.OUT_OF_STOCK, 2L));
+        assertThat(facets.getRating()).containsOnly(entry(3, 2L), entry(5, 2L));
+        assertThat(facets.getCategoryId()).containsOnly(entry(electronicsId, 3L), entry(booksId, 2L));
+    }
+
+    @Test
+    void eachFacetIsCountedWithoutItsOwnFilter() {
+        ProductCriteria criteria = new ProductCriteria();
+        criteria.status().setEquals(ProductStatus.IN_STOCK);
+        criteria.rating().setEquals(5);
+        criteria.categoryId().setEquals(electronicsId);
+
+        ProductFacetsDTO facets = productQueryService.findFacetsByCriteria(criteria);
+
+        // rated 5, in Electronics: Phone
+        assertThat(facets.getStatus()).containsOnly(entry(ProductStatus.IN_STOCK, 1L));
+        // in stock, in Electronics: Phone and Cable
+        assertThat(facets.getRating()).containsOnly(entry(3, 1L), entry(5, 1L));
+        // in stock, rated 5: Phone, in both categories
+        assertThat(facets.getCategoryId()).containsOnly(entry(electronicsId, 1L), entry(booksId, 1L));
+        assertThat(criteria.getStatus()).isNotNull();
+        assertThat(criteria.getRating()).isNotNull();
+        assertThat(criteria.getCategoryId()).isNotNull();
+    }
+
+    private List<String> titles(ProductCriteria criteria) {
+        return productQueryService.findByCriteria(criteria, Pageable.unpaged()).map(Product::getTitle).getContent();
+    }
+
+    private static Product newProduct(String title, ProductStatus status, Integer rating, String price) {
+        return new Product().title(title).status(status).rating(rating).price(new BigDecimal(price)).dateAdded(Instant.now());
+    }
+
+    private static Category newCategory(String description) {
+        return new Category().description(description).status(CategoryStatus.AVAILABLE).dateAdded(Instant.now());
+    }
+
+    @Configuration
+    @Import({ JpaTestConfiguration.class, ProductQueryService.class })
+    static class TestConfiguration {}
+}
@@ -0,0 +1,115 @@
+package myapp.service;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import myapp.domain.Product;
+import myapp.domain.enumeration.ProductStatus;
+import myapp.repository.ProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+/**
+ * Cost of {@link ProductService#partialUpdate(Product)} merging a patch into a product, search index update included.
+ * <p>
+ * The repository is a stub returning the same product, and the transactions do nothing, so that only the merge is
+ * measured, not the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductServicePartialUpdateBenchmark {
+
+    @Param({ "price", "all" })
+    private String patch;
+
+    private ProductService productService;
+
+    private Product update;
+
+    @Setup
+    public void setUp() {
+        Product existing = new Product()
+            .id(1L)
+            .title("Product")
+            .keywords("benchmark product")
+            .description("A product to update.")
+            .rating(4)
+            .price(new BigDecimal("19.99"))
+            .quantityInStock(100)
+            .status(ProductStatus.IN_STOCK)
+            .weight(1.5)
+            .dimensions("10x20x30")
+            .dateAdded(Instant.now());
+        ProductRepository productRepository = (ProductRepository) Proxy.newProxyInstance(
+            ProductRepository.class.getClassLoader(),
+            new Class<?>[] { ProductRepository.class },
+            (proxy, method, args) ->
+                switch (method.getName()) {
+                    case "findById" -> Optional.of(existing);
+                    case "save" -> args[0];
+                    case "findAllAfterId" -> new SliceImpl<>(List.of(existing));
+                    default -> throw new UnsupportedOperationException(method.getName());
+                }
+        );
+        PlatformTransactionManager transactionManager = new AbstractPlatformTransactionManager() {
+            @Override
+            protected Object doGetTransaction() {
+                return new Object();
+            }
+
+            @Override
+            protected void doBegin(Object transaction, TransactionDefinition definition) {}
+
+            @Override
+            protected void doCommit(DefaultTransactionStatus status) {}
+
+            @Override
+            protected void doRollback(DefaultTransactionStatus status) {}
+        };
+        ProductSearchIndex productSearchIndex = new ProductSearchIndex(productRepository, transactionManager);
+        productSearchIndex.rebuild();
+        ProductPriceIndex productPriceIndex = new ProductPriceIndex(productRepository, transactionManager);
+        productPriceIndex.rebuild();
+        productService = new ProductService(productRepository, productSearchIndex, productPriceIndex, null);
+
+        update = new Product().id(1L).price(new BigDecimal("17.99"));
+        if ("all".equals(patch)) {
+            update
+                .title("Updated product")
+                .keywords("updated benchmark product")
+                .description("An updated product.")
+                .rating(5)
+                .quantityInStock(90)
+                .status(ProductStatus.IN_STOCK)
+                .weight(1.6)
+                .dimensions("10x20x31")
+                .dateModified(Instant.now());
+        }
+    }
+
+    @Benchmark
+    public Object partialUpdate() {
+        return productService.partialUpdate(update);
+    }
+}
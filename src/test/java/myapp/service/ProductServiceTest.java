@@ -27,6 +27,15 @@ public class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @Mock
+    private ProductPriceIndex productPriceIndex;
+
+    @Mock
+    private NdjsonExporter ndjsonExporter;
+
     @InjectMocks
     private ProductService productService;
 
@@ -0,0 +1,204 @@
+package myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import myapp.config.ApplicationProperties;
+import myapp.config.JpaTestConfiguration;
+import myapp.domain.Product;
+import myapp.domain.StockReservation;
+import myapp.domain.enumeration.ProductStatus;
+import myapp.domain.enumeration.ReservationStatus;
+import myapp.repository.ProductRepository;
+import myapp.repository.StockReservationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Hammers {@link StockReservationService} from hundreds of threads against a real database and checks that stock is
+ * never oversold.
+ */
+class StockReservationServiceTest {
+
+    private static final int THREADS = 300;
+
+    private AnnotationConfigApplicationContext context;
+
+    private StockReservationService stockReservationService;
+
+    private ProductRepository productRepository;
+
+    private StockReservationRepository stockReservationRepository;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        context = new AnnotationConfigApplicationContext(TestConfiguration.class);
+        stockReservationService = context.getBean(StockReservationService.class);
+        productRepository = context.getBean(ProductRepository.class);
+        stockReservationRepository = context.getBean(StockReservationRepository.class);
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        context.close();
+    }
+
+    @Test
+    @Timeout(60)
+    void concurrentReservationsNeverOversell() throws Exception {
+        Long productId = createProduct(100);
+
+        List<Boolean> results = runConcurrently(() -> {
+            try {
+                stockReservationService.reserve(productId, 1);
+                return true;
+            } catch (InsufficientStockException e) {
+                return false;
+            }
+        });
+
+        assertThat(results.stream().filter(Boolean::booleanValue)).hasSize(100);
+        Product product = productRepository.findById(productId).orElseThrow();
+        assertThat(product.getQuantityInStock()).isZero();
+        assertThat(product.getStatus()).isEqualTo(ProductStatus.OUT_OF_STOCK);
+        assertThat(stockReservationRepository.count()).isEqualTo(100);
+    }
+
+    @Test
+    @Timeout(60)
+    void concurrentReservationsAndReleasesKeepStockConsistent() throws Exception {
+        int initialStock = 50;
+        Long productId = createProduct(initialStock);
+
+        runConcurrently(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            try {
+                StockReservation reservation = stockReservationService.reserve(productId, 1 + random.nextInt(3));
+                if (random.nextBoolean()) {
+                    stockReservationService.release(reservation.getId());
+                }
+                return true;
+            } catch (InsufficientStockException e) {
+                return false;
+            }
+        });
+
+        int pending = stockReservationRepository
+            .findAll()
+            .stream()
+            .filter(reservation -> reservation.getStatus() == ReservationStatus.PENDING)
+            .mapToInt(StockReservation::getQuantity)
+            .sum();
+        int stock = productRepository.findById(productId).orElseThrow().getQuantityInStock();
+        assertThat(stock).isNotNegative();
+        assertThat(stock + pending).isEqualTo(initialStock);
+    }
+
+    @Test
+    void releasedReservationGoesBackInStockOnce() {
+        Long productId = createProduct(2);
+
+        StockReservation reservation = stockReservationService.reserve(productId, 2);
+        assertThat(productRepository.findById(productId).orElseThrow().getStatus()).isEqualTo(ProductStatus.OUT_OF_STOCK);
+        assertThatThrownBy(() -> stockReservationService.reserve(productId, 1)).isInstanceOf(InsufficientStockException.class);
+
+        assertThat(stockReservationService.release(reservation.getId())).isTrue();
+        assertThat(stockReservationService.release(reservation.getId())).isFalse();
+        assertThat(stockReservationService.commit(reservation.getId())).isFalse();
+        Product product = productRepository.findById(productId).orElseThrow();
+        assertThat(product.getQuantityInStock()).isEqualTo(2);
+        assertThat(product.getStatus()).isEqualTo(ProductStatus.IN_STOCK);
+    }
+
+    @Test
+    void reserveAllReservesNothingWhenOneProductIsShort() {
+        Long availableId = createProduct(5);
+        Long shortId = createProduct(1);
+
+        assertThatThrownBy(() -> stockReservationService.reserveAll(Map.of(availableId, 2, shortId, 2))).isInstanceOf(
+            InsufficientStockException.class
+        );
+
+        assertThat(productRepository.findById(availableId).orElseThrow().getQuantityInStock()).isEqualTo(5);
+        assertThat(stockReservationRepository.count()).isZero();
+        assertThat(stockReservationService.reserveAll(Map.of(availableId, 2, shortId, 1))).hasSize(2);
+        assertThat(stockReservationRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void reservationEvictsOnlyTheReservedProductFromTheSecondLevelCache() {
+        Long reservedId = createProduct(5);
+        Long otherId = createProduct(5);
+        productRepository.findById(reservedId);
+        productRepository.findById(otherId);
+        jakarta.persistence.Cache cache = context.getBean(EntityManagerFactory.class).getCache();
+        assertThat(cache.contains(Product.class, reservedId)).isTrue();
+
+        stockReservationService.reserve(reservedId, 1);
+
+        assertThat(cache.contains(Product.class, reservedId)).isFalse();
+        assertThat(cache.contains(Product.class, otherId)).isTrue();
+        assertThat(productRepository.findById(reservedId).orElseThrow().getQuantityInStock()).isEqualTo(4);
+    }
+
+    private Long createProduct(int quantityInStock) {
+        Product product = new Product()
+            .title("Product")
+            .price(BigDecimal.TEN)
+            .quantityInStock(quantityInStock)
+            .status(ProductStatus.IN_STOCK)
+            .dateAdded(Instant.now());
+        return productRepository.save(product).getId();
+    }
+
+    private List<Boolean> runConcurrently(Callable<Boolean> task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> futures = new ArrayList<>(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(
+                executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                })
+            );
+        }
+        start.countDown();
+        List<Boolean> results = new ArrayList<>(THREADS);
+        for (Future<Boolean> future : futures) {
+            results.add(future.get());
+        }
+        return results;
+    }
+
+    @Configuration
+    @Import({ JpaTestConfiguration.class, StockReservationService.class })
+    static class TestConfiguration {
+
+        @Bean
+        ApplicationProperties applicationProperties() {
+            return new ApplicationProperties();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package myapp.service.mapper;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import myapp.domain.Authority;
+import myapp.domain.User;
+import myapp.security.AuthoritiesConstants;
+import myapp.service.dto.AdminUserDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of the {@link UserMapper} conversions, for one user and for a page of users.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserMapperBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private final UserMapper userMapper = new UserMapper();
+
+    private User user;
+
+    private List<User> users;
+
+    private AdminUserDTO adminUserDTO;
+
+    private List<AdminUserDTO> adminUserDTOs;
+
+    @Setup
+    public void setUp() {
+        Authority userAuthority = new Authority();
+        userAuthority.setName(AuthoritiesConstants.USER);
+        Authority adminAuthority = new Authority();
+        adminAuthority.setName(AuthoritiesConstants.ADMIN);
+
+        users = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            User newUser = new User();
+            newUser.setId((long) i);
+            newUser.setLogin("user" + i);
+            newUser.setFirstName("First" + i);
+            newUser.setLastName("Last" + i);
+            newUser.setEmail("user" + i + "@localhost");
+            newUser.setActivated(true);
+            newUser.setLangKey("en");
+            newUser.setCreatedBy("system");
+            newUser.setCreatedDate(Instant.now());
+            newUser.setAuthorities(i == 0 ? Set.of(userAuthority, adminAuthority) : Set.of(userAuthority));
+            users.add(newUser);
+        }
+        user = users.get(0);
+        adminUserDTOs = userMapper.usersToAdminUserDTOs(users);
+        adminUserDTO = adminUserDTOs.get(0);
+    }
+
+    @Benchmark
+    public Object userToUserDTO() {
+        return userMapper.userToUserDTO(user);
+    }
+
+    @Benchmark
+    public Object userToAdminUserDTO() {
+        return userMapper.userToAdminUserDTO(user);
+    }
+
+    @Benchmark
+    public Object userDTOToUser() {
+        return userMapper.userDTOToUser(adminUserDTO);
+    }
+
+    @Benchmark
+    public Object usersToAdminUserDTOs() {
+        return userMapper.usersToAdminUserDTOs(users);
+    }
+
+    @Benchmark
+    public Object userDTOsToUsers() {
+        return userMapper.userDTOsToUsers(adminUserDTOs);
+    }
+}
@@ -0,0 +1,446 @@
+package myapp.web.rest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import myapp.domain.enumeration.ProductStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Load test replaying a mixed browse, search, checkout and login workload against a running application, and reporting
+ * the throughput and latency percentiles of each operation.
+ * <p>
+ * Each virtual user logs in, then runs operations picked at random with the weights of {@link Operation} until the end
+ * of the test, each one as soon as the previous one completed, or after {@code load.think-time}. Operations completed
+ * during the warmup are not recorded. Failed operations, including checkouts short of stock, are counted as errors.
+ * <p>
+ * Run by the {@code load-test} Maven profile, which boots the application on a scaled up copy of the sample data:
+ * {@code ./mvnw -Pload-test verify}. It can also be run against any instance, with the following system properties:
+ * <ul>
+ *     <li>{@code load.base-url}: the URL of the application, {@code http://localhost:8080} by default.</li>
+ *     <li>{@code load.username} and {@code load.password}: the account of the virtual users, {@code user} by default.</li>
+ *     <li>{@code load.users}: the number of virtual users, 20 by default.</li>
+ *     <li>{@code load.warmup} and {@code load.duration}: how long to warm up, then to record, {@code PT10S} and
+ *     {@code PT1M} by default.</li>
+ *     <li>{@code load.think-time}: the pause of a virtual user between two operations, none by default.</li>
+ *     <li>{@code load.report}: the JSON file to write the results to, if any.</li>
+ * </ul>
+ */
+public final class ShopLoadSimulation {
+
+    /**
+     * The operations of the workload, with their share of it, in percent.
+     */
+    enum Operation {
+        LIST_PRODUCTS(20),
+        GET_PRODUCT(20),
+        SEARCH_PRODUCTS(20),
+        LIST_CATEGORIES(5),
+        CATEGORY_PRODUCTS(5),
+        LIST_ORDERS(10),
+        CHECKOUT(15),
+        LOGIN(5);
+
+        private static final int TOTAL_WEIGHT = Arrays.stream(values()).mapToInt(operation -> operation.weight).sum();
+
+        private final int weight;
+
+        Operation(int weight) {
+            this.weight = weight;
+        }
+
+        static Operation pick() {
+            int value = ThreadLocalRandom.current().nextInt(TOTAL_WEIGHT);
+            for (Operation operation : values()) {
+                value -= operation.weight;
+                if (value < 0) {
+                    return operation;
+                }
+            }
+            throw new IllegalStateException();
+        }
+    }
+
+    private static final Logger LOG = LoggerFactory.getLogger(ShopLoadSimulation.class);
+
+    private static final int PAGE_SIZE = 20;
+
+    private static final int SETUP_PAGE_SIZE = 1000;
+
+    /**
+     * The orders of the fake data are dated 2024, before the default window of {@code GET /api/orders}.
+     */
+    private static final String ORDERS = "/api/orders?from=2000-01-01T00:00:00Z";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String baseUrl;
+
+    private final String username;
+
+    private final String password;
+
+    private final int users;
+
+    private final Duration warmup;
+
+    private final Duration duration;
+
+    private final Duration thinkTime;
+
+    private final HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(10))
+        .build();
+
+    private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+
+    private final List<Long> productIds = new ArrayList<>();
+
+    private final List<String> searchTerms = new ArrayList<>();
+
+    private final List<Long> categoryIds = new ArrayList<>();
+
+    private final List<Long> addressIds = new ArrayList<>();
+
+    private long productPages;
+
+    private long orderPages;
+
+    private long categoryPages;
+
+    private volatile long recordingStart;
+
+    private ShopLoadSimulation() {
+        this.baseUrl = System.getProperty("load.base-url", "http://localhost:8080");
+        this.username = System.getProperty("load.username", "user");
+        this.password = System.getProperty("load.password", "user");
+        this.users = Integer.getInteger("load.users", 20);
+        this.warmup = Duration.parse(System.getProperty("load.warmup", "PT10S"));
+        this.duration = Duration.parse(System.getProperty("load.duration", "PT1M"));
+        this.thinkTime = Duration.parse(System.getProperty("load.think-time", "PT0S"));
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new Recorder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        ShopLoadSimulation simulation = new ShopLoadSimulation();
+        simulation.setUp();
+        simulation.run();
+        ObjectNode report = simulation.report();
+        String reportFile = System.getProperty("load.report");
+        if (reportFile != null && !reportFile.isBlank()) {
+            Path path = Path.of(reportFile);
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            MAPPER.writer(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), report);
+            LOG.info("Report written to {}", path.toAbsolutePath());
+        }
+    }
+
+    /**
+     * Read the ids the workload picks from: the products in stock, the categories and the shipping addresses, and the
+     * words of the product titles to search for.
+     */
+    private void setUp() throws IOException, InterruptedException {
+        String token = login();
+        long after = 0;
+        JsonNode products;
+        do {
+            products = get(token, "/api/products?count=false&size=" + SETUP_PAGE_SIZE + "&after=" + after);
+            for (JsonNode product : products) {
+                after = product.get("id").asLong();
+                if (ProductStatus.IN_STOCK.name().equals(product.path("status").asText())) {
+                    productIds.add(after);
+                }
+                for (String word : product.path("title").asText().split("\\s+")) {
+                    if (word.length() > 2 && searchTerms.size() < SETUP_PAGE_SIZE) {
+                        searchTerms.add(word);
+                    }
+                }
+            }
+        } while (products.size() == SETUP_PAGE_SIZE);
+        collectIds(token, "/api/categories?eagerload=false", categoryIds);
+        collectIds(token, "/api/addresses", addressIds);
+        productPages = pages(token, "/api/products");
+        orderPages = pages(token, ORDERS);
+        categoryPages = (categoryIds.size() + PAGE_SIZE - 1) / PAGE_SIZE;
+        if (productIds.isEmpty() || searchTerms.isEmpty() || categoryIds.isEmpty() || addressIds.isEmpty()) {
+            throw new IllegalStateException("No products in stock, categories or addresses to run the workload on");
+        }
+        LOG.info(
+            "Running {} users against {}: {} products in stock, {} categories, {} addresses",
+            users,
+            baseUrl,
+            productIds.size(),
+            categoryIds.size(),
+            addressIds.size()
+        );
+    }
+
+    private void collectIds(String token, String path, List<Long> ids) throws IOException, InterruptedException {
+        JsonNode page;
+        int number = 0;
+        do {
+            page = get(token, path + (path.contains("?") ? "&" : "?") + "sort=id&size=" + SETUP_PAGE_SIZE + "&page=" + number++);
+            page.forEach(entity -> ids.add(entity.get("id").asLong()));
+        } while (page.size() == SETUP_PAGE_SIZE);
+    }
+
+    private long pages(String token, String path) throws IOException, InterruptedException {
+        HttpResponse<String> response = send(token, HttpRequest.newBuilder(uri(path + (path.contains("?") ? "&" : "?") + "size=1")).GET());
+        long total = Long.parseLong(response.headers().firstValue("X-Total-Count").orElse("0"));
+        return Math.max(1, (total + PAGE_SIZE - 1) / PAGE_SIZE);
+    }
+
+    private void run() throws InterruptedException {
+        long start = System.nanoTime();
+        recordingStart = start + warmup.toNanos();
+        long end = recordingStart + duration.toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(users);
+        for (int i = 0; i < users; i++) {
+            executor.execute(() -> runUser(end));
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(warmup.plus(duration).plusMinutes(1).toMillis(), TimeUnit.MILLISECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void runUser(long end) {
+        String token = null;
+        Operation operation = Operation.LOGIN;
+        while (System.nanoTime() < end) {
+            long start = System.nanoTime();
+            try {
+                token = perform(operation, token);
+                record(operation, start, true);
+            } catch (IOException | RuntimeException e) {
+                record(operation, start, false);
+                if (operation == Operation.LOGIN) {
+                    token = null;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            operation = token == null ? Operation.LOGIN : Operation.pick();
+            if (!thinkTime.isZero()) {
+                try {
+                    Thread.sleep(thinkTime);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the token to use for the next operations.
+     */
+    private String perform(Operation operation, String token) throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (operation) {
+            case LIST_PRODUCTS -> get(token, "/api/products?size=" + PAGE_SIZE + "&page=" + random.nextLong(productPages));
+            case GET_PRODUCT -> get(token, "/api/products/" + pick(productIds));
+            case SEARCH_PRODUCTS -> get(
+                token,
+                "/api/products/_search?size=" + PAGE_SIZE + "&q=" + URLEncoder.encode(pick(searchTerms), StandardCharsets.UTF_8)
+            );
+            case LIST_CATEGORIES -> get(token, "/api/categories?size=" + PAGE_SIZE + "&page=" + random.nextLong(categoryPages));
+            case CATEGORY_PRODUCTS -> get(token, "/api/categories/" + pick(categoryIds) + "/subtree-products?size=" + PAGE_SIZE);
+            case LIST_ORDERS -> get(token, ORDERS + "&size=" + PAGE_SIZE + "&page=" + random.nextLong(orderPages));
+            case CHECKOUT -> checkout(token);
+            case LOGIN -> {
+                return login();
+            }
+        }
+        return token;
+    }
+
+    private void checkout(String token) throws IOException, InterruptedException {
+        ObjectNode cart = MAPPER.createObjectNode();
+        cart.put("shippingAddressId", pick(addressIds));
+        ArrayNode items = cart.putArray("items");
+        int lines = ThreadLocalRandom.current().nextInt(1, 4);
+        for (int i = 0; i < lines; i++) {
+            items.addObject().put("productId", pick(productIds)).put("quantity", 1);
+        }
+        send(
+            token,
+            HttpRequest.newBuilder(uri("/api/orders/_place"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(cart)))
+        );
+    }
+
+    private String login() throws IOException, InterruptedException {
+        ObjectNode credentials = MAPPER.createObjectNode().put("username", username).put("password", password);
+        HttpResponse<String> response = send(
+            null,
+            HttpRequest.newBuilder(uri("/api/authenticate"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(credentials)))
+        );
+        return MAPPER.readTree(response.body()).get("id_token").asText();
+    }
+
+    private JsonNode get(String token, String path) throws IOException, InterruptedException {
+        return MAPPER.readTree(send(token, HttpRequest.newBuilder(uri(path)).GET()).body());
+    }
+
+    private HttpResponse<String> send(String token, HttpRequest.Builder request) throws IOException, InterruptedException {
+        request.timeout(Duration.ofSeconds(30)).header("Accept", "application/json");
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 400) {
+            throw new IOException(request.build().uri() + " failed with status " + response.statusCode());
+        }
+        return response;
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private static <T> T pick(List<T> values) {
+        return values.get(ThreadLocalRandom.current().nextInt(values.size()));
+    }
+
+    private void record(Operation operation, long start, boolean success) {
+        if (start >= recordingStart) {
+            recorders.get(operation).record(System.nanoTime() - start, success);
+        }
+    }
+
+    private ObjectNode report() {
+        double seconds = duration.toNanos() / 1e9;
+        ObjectNode report = MAPPER.createObjectNode();
+        report.put("users", users).put("warmup", warmup.toString()).put("duration", duration.toString());
+        ObjectNode operations = report.putObject("operations");
+        Recorder total = new Recorder();
+        StringBuilder table = new StringBuilder();
+        table.append(
+            String.format(
+                Locale.ROOT,
+                "%-18s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "operation",
+            "count",
+            "errors",
+            "req/s",
+            "mean ms",
+            "p50 ms",
+            "p90 ms",
+                "p99 ms",
+                "max ms"
+            )
+        );
+        for (Map.Entry<Operation, Recorder> entry : recorders.entrySet()) {
+            ObjectNode node = operations.putObject(entry.getKey().name().toLowerCase(Locale.ROOT));
+            entry.getValue().writeTo(node, table, entry.getKey().name(), seconds);
+            total.addAll(entry.getValue());
+        }
+        total.writeTo(report.putObject("total"), table, "TOTAL", seconds);
+        LOG.info("Results:{}{}", System.lineSeparator(), table);
+        return report;
+    }
+
+    /**
+     * Records the latencies of one operation.
+     */
+    private static final class Recorder {
+
+        private final LongAdder errors = new LongAdder();
+
+        private long[] latencies = new long[1024];
+
+        private int count;
+
+        synchronized void record(long nanos, boolean success) {
+            if (!success) {
+                errors.increment();
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+
+        synchronized void addAll(Recorder other) {
+            synchronized (other) {
+                for (int i = 0; i < other.count; i++) {
+                    record(other.latencies[i], true);
+                }
+                errors.add(other.errors.sum());
+            }
+        }
+
+        /**
+         * Write the statistics of the operation to its node of the report, and as a row of the results table.
+         */
+        synchronized void writeTo(ObjectNode node, StringBuilder table, String name, double seconds) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            double mean = count == 0 ? 0 : Arrays.stream(sorted).average().orElse(0) / 1e6;
+            double throughput = count / seconds;
+            node.put("count", count).put("errors", errors.sum()).put("throughput", throughput);
+            node
+                .putObject("latencyMillis")
+                .put("mean", mean)
+                .put("p50", percentile(sorted, 0.5))
+                .put("p90", percentile(sorted, 0.9))
+                .put("p99", percentile(sorted, 0.99))
+                .put("max", percentile(sorted, 1));
+            table.append(
+                String.format(
+                    Locale.ROOT,
+                    "%-18s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    name,
+                    count,
+                    errors.sum(),
+                    throughput,
+                    mean,
+                    percentile(sorted, 0.5),
+                    percentile(sorted, 0.9),
+                    percentile(sorted, 0.99),
+                    percentile(sorted, 1)
+                )
+            );
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = Math.max(0, (int) Math.ceil(quantile * sorted.length) - 1);
+            return sorted[index] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package myapp.web.rest.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class ETagUtilTest {
+
+    @Test
+    void ifMatchUsesTheStrongComparison() {
+        String eTag = ETagUtil.versionTag(3, 12, 40);
+
+        assertThat(ETagUtil.matches(null, eTag)).isTrue();
+        assertThat(ETagUtil.matches("*", eTag)).isTrue();
+        assertThat(ETagUtil.matches("\"3-12-40\"", eTag)).isTrue();
+        assertThat(ETagUtil.matches("\"2-12-39\", \"3-12-40\"", eTag)).isTrue();
+        assertThat(ETagUtil.matches("\"2-12-39\"", eTag)).isFalse();
+        assertThat(ETagUtil.matches("W/\"3-12-40\"", eTag)).isFalse();
+    }
+}